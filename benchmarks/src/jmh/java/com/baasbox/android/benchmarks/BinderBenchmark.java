@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.benchmarks;
+
+import com.baasbox.android.json.JsonArray;
+import com.baasbox.android.json.JsonBinder;
+import com.baasbox.android.json.JsonField;
+import com.baasbox.android.json.JsonModel;
+import com.baasbox.android.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a fetchAll response to model objects: decoding the tree and reading
+ * each field by hand, against the binders generated for {@link JsonModel}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BinderBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    private byte[] bytes;
+    private Page page;
+    private JsonBinder<Page> binder;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Setup
+    public void setup() throws Exception {
+        bytes = Payloads.response(Payloads.FETCH_ALL).encode().getBytes("UTF-8");
+        binder = JsonBinder.of(Page.class);
+        page = binder.decode(bytes);
+    }
+
+    @Benchmark
+    public List<Post> readTree() {
+        JsonArray data = JsonObject.decode(bytes).getArray("data");
+        List<Post> posts = new ArrayList<Post>(data.size());
+        for (int i = 0; i < data.size(); i++) {
+            JsonObject o = data.getObject(i);
+            Post p = new Post();
+            p.id = o.getString("id");
+            p.author = o.getString("_author");
+            p.title = o.getString("title");
+            p.body = o.getString("body");
+            p.score = o.getDouble("score", 0);
+            p.views = o.getLong("views", 0);
+            p.published = o.getBoolean("published", false);
+            JsonArray tags = o.getArray("tags");
+            p.tags = new ArrayList<String>(tags.size());
+            for (int t = 0; t < tags.size(); t++) {
+                p.tags.add(tags.getString(t));
+            }
+            posts.add(p);
+        }
+        return posts;
+    }
+
+    @Benchmark
+    public List<Post> readBinder() {
+        return binder.decode(bytes).data;
+    }
+
+    @Benchmark
+    public String writeTree() {
+        JsonArray data = new JsonArray();
+        for (Post p : page.data) {
+            JsonArray tags = new JsonArray();
+            for (String t : p.tags) {
+                tags.add(t);
+            }
+            data.add(new JsonObject()
+                    .put("id", p.id)
+                    .put("_author", p.author)
+                    .put("title", p.title)
+                    .put("body", p.body)
+                    .put("score", p.score)
+                    .put("views", p.views)
+                    .put("published", p.published)
+                    .put("tags", tags));
+        }
+        return new JsonObject().put("data", data).encode();
+    }
+
+    @Benchmark
+    public String writeBinder() {
+        return binder.encode(page);
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    @JsonModel
+    public static class Page {
+        List<Post> data;
+    }
+
+    @JsonModel
+    public static class Post {
+        String id;
+        @JsonField("_author")
+        String author;
+        String title;
+        String body;
+        double score;
+        long views;
+        boolean published;
+        List<String> tags;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.benchmarks;
+
+import com.baasbox.android.BaasHandler;
+import com.baasbox.android.BaasResult;
+import com.baasbox.android.ExceptionHandler;
+import com.baasbox.android.impl.Constants;
+import com.baasbox.android.impl.Dispatcher;
+import com.baasbox.android.impl.ImmediateDispatcher;
+import com.baasbox.android.impl.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the task lifecycle without any network: queueing on the
+ * dispatcher, execution on the workers and delivery of the callbacks,
+ * against running the same tasks inline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DispatcherBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final int BATCH = 64;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    private Dispatcher dispatcher;
+    private ImmediateDispatcher immediate;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Setup
+    public void setup() {
+        dispatcher = new Dispatcher(workers, ExceptionHandler.DEFAULT);
+        dispatcher.start();
+        immediate = new ImmediateDispatcher();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.stop();
+    }
+
+    /**
+     * A batch of tasks posted at once, waiting for every callback
+     */
+    @Benchmark
+    public void postBatch() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(BATCH);
+        BaasHandler<Integer> handler = new BaasHandler<Integer>() {
+            @Override
+            public void handle(BaasResult<Integer> result) {
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < BATCH; i++) {
+            dispatcher.post(new Noop(i, handler));
+        }
+        done.await();
+    }
+
+    @Benchmark
+    public int runInline() {
+        int sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += immediate.execute(new Noop(i, null)).value();
+        }
+        return sum;
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class Noop extends Task<Integer> {
+        private final int value;
+
+        Noop(int value, BaasHandler<Integer> handler) {
+            super(priority(value), handler);
+            this.value = value;
+        }
+
+        private static int priority(int value) {
+            return (value & 1) == 0 ? Constants.PRIORITY_NORMAL : Constants.PRIORITY_LOW;
+        }
+
+        @Override
+        protected Integer asyncCall() {
+            return value;
+        }
+    }
+}
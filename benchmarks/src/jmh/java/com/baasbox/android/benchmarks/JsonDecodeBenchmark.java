@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.benchmarks;
+
+import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.JsonSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of server responses: from strings, from utf-8 bytes,
+ * lazily and keeping only a projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonDecodeBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    @Param({Payloads.SMALL, Payloads.FETCH_ALL, Payloads.PROFILE})
+    public String payload;
+
+    private String json;
+    private byte[] bytes;
+    private JsonSelector projection;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Setup
+    public void setup() throws Exception {
+        json = Payloads.response(payload).encode();
+        bytes = json.getBytes("UTF-8");
+        projection = JsonSelector.of("title", "_author", "user.name").under("data");
+    }
+
+    @Benchmark
+    public JsonObject decodeString() {
+        return JsonObject.decode(json);
+    }
+
+    @Benchmark
+    public JsonObject decodeBytes() {
+        return JsonObject.decode(bytes);
+    }
+
+    @Benchmark
+    public JsonObject decodeStream() {
+        return JsonObject.decode(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Lazy decoding reading only the envelope
+     */
+    @Benchmark
+    public Object decodeLazy() {
+        return JsonObject.decodeLazy(bytes).get("data");
+    }
+
+    /**
+     * Lazy decoding then reading every value
+     */
+    @Benchmark
+    public String decodeLazyAll() {
+        return JsonObject.decodeLazy(bytes).encode();
+    }
+
+    @Benchmark
+    public JsonObject decodeSelected() {
+        return JsonObject.decode(bytes, projection);
+    }
+}
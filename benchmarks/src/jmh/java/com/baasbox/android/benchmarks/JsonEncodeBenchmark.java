@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.benchmarks;
+
+import com.baasbox.android.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of request bodies: to strings, and to utf-8 bytes
+ * through a string or directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonEncodeBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    @Param({Payloads.SMALL, Payloads.FETCH_ALL, Payloads.PROFILE})
+    public String payload;
+
+    private JsonObject json;
+    private ByteArrayOutputStream out;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Setup
+    public void setup() {
+        json = Payloads.response(payload);
+        out = new ByteArrayOutputStream(json.encode().length() * 2);
+    }
+
+    @Benchmark
+    public String encodeString() {
+        return json.encode();
+    }
+
+    @Benchmark
+    public byte[] encodeUtf8ThroughString() throws IOException {
+        return json.encode().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public int encodeUtf8() throws IOException {
+        out.reset();
+        json.encode(out);
+        return out.size();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.benchmarks;
+
+import com.baasbox.android.json.JsonArray;
+import com.baasbox.android.json.JsonObject;
+
+import java.util.Random;
+
+/**
+ * Representative server responses, generated deterministically.
+ */
+public final class Payloads {
+// ------------------------------ FIELDS ------------------------------
+
+    /**
+     * A single document
+     */
+    public static final String SMALL = "small";
+
+    /**
+     * The response of a fetchAll of 1,000 documents
+     */
+    public static final String FETCH_ALL = "fetchAll";
+
+    /**
+     * A user with nested profile sections
+     */
+    public static final String PROFILE = "profile";
+
+    public static final int FETCH_ALL_SIZE = 1000;
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "perché", "città", "straße", "über", "日本語", "emoji😀"
+    };
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private Payloads() {
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Returns the response named <code>name</code>
+     */
+    public static JsonObject response(String name) {
+        Random random = new Random(42);
+        if (SMALL.equals(name)) {
+            return envelope(document(random, 0));
+        } else if (FETCH_ALL.equals(name)) {
+            JsonArray data = new JsonArray();
+            for (int i = 0; i < FETCH_ALL_SIZE; i++) {
+                data.add(document(random, i));
+            }
+            return envelope(data);
+        } else if (PROFILE.equals(name)) {
+            return envelope(profile(random));
+        }
+        throw new IllegalArgumentException("unknown payload " + name);
+    }
+
+    public static JsonObject document(Random random, int i) {
+        JsonArray tags = new JsonArray();
+        for (int t = random.nextInt(5); t >= 0; t--) {
+            tags.add(word(random));
+        }
+        return new JsonObject()
+                .put("@rid", "#12:" + i)
+                .put("@version", (long) random.nextInt(20))
+                .put("@class", "posts")
+                .put("id", "5f1c2a7e-0b3d-4c1e-9a" + String.format("%02d-%012d", i % 100, i))
+                .put("_author", "user" + random.nextInt(100))
+                .put("_creation_date", "2014-03-" + (10 + i % 20) + "T10:15:30.000+0100")
+                .put("title", sentence(random, 6))
+                .put("body", sentence(random, 40))
+                .put("score", random.nextDouble() * 5)
+                .put("views", (long) random.nextInt(100000))
+                .put("published", random.nextBoolean())
+                .put("tags", tags)
+                .put("location", new JsonObject()
+                        .put("lat", random.nextDouble() * 180 - 90)
+                        .put("lng", random.nextDouble() * 360 - 180)
+                        .put("place", word(random)));
+    }
+
+    private static JsonObject profile(Random random) {
+        JsonArray friends = new JsonArray();
+        for (int i = 0; i < 50; i++) {
+            friends.add(new JsonObject()
+                    .put("username", "friend" + i)
+                    .put("since", "2013-12-0" + (1 + i % 9))
+                    .put("visibleByFriends", new JsonObject().put("nick", word(random))));
+        }
+        JsonArray roles = new JsonArray().add("registered").add("reviewer");
+        return new JsonObject()
+                .put("user", new JsonObject()
+                        .put("name", "someone")
+                        .put("status", "ACTIVE")
+                        .put("roles", roles))
+                .put("id", "b8f5d1a0-77c2-4bd0-bd59-0c54a4f7e8a1")
+                .put("signUpDate", "2013-11-02T18:21:04.000+0100")
+                .put("visibleByTheUser", new JsonObject()
+                        .put("email", "someone@example.com")
+                        .put("phone", "+39 06 1234567"))
+                .put("visibleByFriends", new JsonObject()
+                        .put("address", new JsonObject()
+                                .put("street", sentence(random, 3))
+                                .put("city", word(random))
+                                .put("zip", "00100"))
+                        .put("friends", friends))
+                .put("visibleByRegisteredUsers", new JsonObject()
+                        .put("bio", sentence(random, 60))
+                        .put("preferences", new JsonObject()
+                                .put("theme", "dark")
+                                .put("notifications", true)
+                                .put("languages", new JsonArray().add("it").add("en"))))
+                .put("visibleByAnonymousUsers", new JsonObject()
+                        .put("nick", word(random)));
+    }
+
+    private static JsonObject envelope(Object data) {
+        JsonObject o = new JsonObject().put("result", "ok");
+        if (data instanceof JsonArray) {
+            o.put("data", (JsonArray) data);
+        } else {
+            o.put("data", (JsonObject) data);
+        }
+        return o.put("http_code", 200L);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(word(random));
+        }
+        return sb.toString();
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
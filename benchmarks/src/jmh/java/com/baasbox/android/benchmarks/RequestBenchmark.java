@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.benchmarks;
+
+import com.baasbox.android.impl.Requests;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the url and the headers of a request, as the request factory
+ * does for every call: the endpoint, the query of a criteria and the
+ * authentication headers. The endpoint is also built the way it used to be,
+ * one regex replacement per parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String CHARSET = "UTF-8";
+    private static final String ROOT = Requests.apiRoot(true, "api.example.com", 443, "/");
+    private static final String PATTERN = "document/{}/{}/.{}";
+    private static final String COLLECTION = "posts";
+    private static final String ID = "5f0c2c3e-8a7e-4d1b-9a59-2bd1c1a8f3e4";
+    private static final String FIELD = "title";
+
+    // the parameters of a paged, sorted and projected query
+    private static final String[][] QUERY = {
+            {"where", "score > ? and _author = ?"},
+            {"params", "10"},
+            {"params", "user name"},
+            {"orderBy", "_creation_date desc"},
+            {"page", "0"},
+            {"recordsPerPage", "20"},
+            {"fields", "title,score,tags"}
+    };
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Benchmark
+    public String endpoint() {
+        return Requests.endpoint(ROOT, PATTERN, COLLECTION, ID, FIELD);
+    }
+
+    @Benchmark
+    public String endpointRegex() {
+        String pattern = PATTERN;
+        for (Object param : new Object[]{COLLECTION, ID, FIELD}) {
+            pattern = pattern.replaceFirst("\\{\\}", param.toString());
+        }
+        return ROOT + pattern;
+    }
+
+    @Benchmark
+    public String queryUrl() {
+        StringBuilder sb = new StringBuilder();
+        for (String[] param : QUERY) {
+            Requests.appendParam(sb, param[0], param[1], CHARSET);
+        }
+        return Requests.endpoint(ROOT, "document/{}", COLLECTION) + '?' + sb;
+    }
+
+    @Benchmark
+    public Map<String, String> basicAuthHeaders() {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("X-BAASBOX-APPCODE", "1234567890");
+        headers.put("User-Agent", "BaasBox AndroidSDK/0.9.3");
+        headers.put("Authorization", Requests.basicAuth("user name", "secret password"));
+        return headers;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import com.baasbox.android.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of documents through the binary encoding written to parcels,
+ * against the json text it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonBinaryBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    @Param({Payloads.SMALL, Payloads.FETCH_ALL, Payloads.PROFILE})
+    public String payload;
+
+    private JsonObject json;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Setup
+    public void setup() {
+        json = Payloads.response(payload);
+    }
+
+    @Benchmark
+    public JsonStructure binaryRoundTrip() {
+        return JsonBinary.decode(JsonBinary.encode(json));
+    }
+
+    @Benchmark
+    public JsonStructure textRoundTrip() {
+        return JsonObject.decode(json.encode());
+    }
+}
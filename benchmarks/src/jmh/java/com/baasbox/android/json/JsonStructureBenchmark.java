@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import com.baasbox.android.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and reading the in memory structures: {@link CompactMap} against
+ * the {@link LinkedHashMap} it replaced, {@link JsonArray} element access
+ * and copy on write of decoded documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonStructureBenchmark {
+// ------------------------------ FIELDS ------------------------------
+
+    @Param({"4", "16", "64"})
+    public int size;
+
+    private String[] keys;
+    private CompactMap compact;
+    private Map<String, Object> linked;
+    private JsonArray array;
+    private JsonObject document;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "field" + i;
+        }
+        compact = buildCompactMap();
+        linked = buildLinkedHashMap();
+        array = new JsonArray();
+        for (int i = 0; i < size; i++) {
+            array.add((long) i);
+        }
+        document = JsonObject.decode(Payloads.response(Payloads.SMALL).encode());
+    }
+
+    @Benchmark
+    public CompactMap buildCompactMap() {
+        CompactMap m = new CompactMap();
+        for (String k : keys) {
+            m.put(k, k);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public Map<String, Object> buildLinkedHashMap() {
+        Map<String, Object> m = new LinkedHashMap<String, Object>();
+        for (String k : keys) {
+            m.put(k, k);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public int lookupCompactMap() {
+        int found = 0;
+        for (String k : keys) {
+            if (compact.get(k) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int lookupLinkedHashMap() {
+        int found = 0;
+        for (String k : keys) {
+            if (linked.get(k) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long iterateJsonArray() {
+        long sum = 0;
+        for (int i = 0; i < array.size(); i++) {
+            sum += array.getLong(i, 0L);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public JsonArray buildJsonArray() {
+        JsonArray a = new JsonArray();
+        for (int i = 0; i < size; i++) {
+            a.add((long) i);
+        }
+        return a;
+    }
+
+    /**
+     * Copy of a decoded document changing one nested field,
+     * as done when saving edited documents
+     */
+    @Benchmark
+    public JsonObject copyOnWrite() {
+        JsonObject copy = document.copy();
+        copy.getObject("data").put("title", "changed");
+        return copy;
+    }
+}
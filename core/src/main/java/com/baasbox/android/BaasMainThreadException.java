@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+/**
+ * Thrown, or reported, when a blocking call is made on the main thread
+ * and a {@link MainThreadPolicy} other than {@link MainThreadPolicy#ALLOW} is set.
+ * Its stack trace points to the call.
+ *
+ * @since 0.9.4
+ */
+public class BaasMainThreadException extends BaasRuntimeException {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final long serialVersionUID = -4207916520384187529L;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public BaasMainThreadException(String detailMessage) {
+        super(detailMessage);
+    }
+}
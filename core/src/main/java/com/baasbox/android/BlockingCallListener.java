@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+/**
+ * Receives the blocking calls made on the main thread
+ * when the {@link MainThreadPolicy#REPORT} policy is set.
+ *
+ * @since 0.9.4
+ */
+public interface BlockingCallListener {
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Invoked on the main thread right after a blocking call returned
+     *
+     * @param call the request that blocked, as the name of its task
+     * @param blockedNanos how long the main thread was blocked
+     * @param where an exception, not thrown, whose stack trace locates the call
+     */
+    void onBlockingCall(String call, long blockedNanos, BaasMainThreadException where);
+}
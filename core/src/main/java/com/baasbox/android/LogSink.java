@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+/**
+ * Destination of the log records of the sdk, by default they are
+ * written to logcat.
+ *
+ * Records are passed unformatted: the message template and its arguments
+ * are kept apart so that a sink can aggregate records by template,
+ * or format them with {@link String#format(java.util.Locale, String, Object...)}.
+ * Only records at or above the level set on the BaasBox builder reach the sink.
+ *
+ * @since 0.9.4
+ */
+public interface LogSink {
+// ------------------------------ FIELDS ------------------------------
+
+    // same values as android.util.Log
+    int VERBOSE = 2;
+    int DEBUG = 3;
+    int INFO = 4;
+    int WARN = 5;
+    int ERROR = 6;
+
+    /**
+     * Level that disables logging
+     */
+    int NONE = 7;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Receives a log record, may be invoked concurrently from any thread.
+     *
+     * @param level the level of the record
+     * @param tag the tag of the sdk
+     * @param format the message template, to be formatted only if <code>args</code> is not empty
+     * @param args the arguments of the template, never null
+     * @param error the error attached to the record or null
+     */
+    void log(int level, String tag, String format, Object[] args, Throwable error);
+}
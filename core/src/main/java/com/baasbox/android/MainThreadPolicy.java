@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+/**
+ * What to do when a synchronous request, or a wait on an asynchronous one,
+ * is issued from the main thread, where blocking causes jank and ANRs.
+ *
+ * @see BlockingCallListener
+ * @since 0.9.4
+ */
+public enum MainThreadPolicy {
+    /**
+     * Calls on the main thread are not checked, the default
+     */
+    ALLOW,
+
+    /**
+     * Calls on the main thread run, then the time they blocked is
+     * reported to the {@link BlockingCallListener} or logged as a warning
+     * together with the stack trace of the call
+     */
+    REPORT,
+
+    /**
+     * Calls on the main thread fail with a {@link BaasMainThreadException}
+     * before doing any work
+     */
+    THROW,
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+/**
+ * Receives the timings of every request once its callback has been delivered.
+ * When no listener is installed requests are not timed at all.
+ *
+ * The listener is invoked on the thread that delivered the callback, usually
+ * the main thread, or on the calling thread for synchronous requests:
+ * implementations should be fast and hand off any heavy work.
+ *
+ * @since 0.9.4
+ */
+public interface MetricsListener {
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Invoked after the callback of a request has run
+     *
+     * @param metrics the timings of the request
+     */
+    void onRequestCompleted(RequestMetrics metrics);
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+import java.util.Locale;
+
+/**
+ * Timings of a single request, split in the phases it goes through:
+ * waiting in the dispatcher queue, building the http request,
+ * waiting for the response headers, parsing the body and delivering the callback.
+ *
+ * Durations are in nanoseconds, phases that did not happen,
+ * such as network phases of requests answered from a cache, are 0.
+ * When a request is retried after refreshing the session,
+ * network phases refer to the last attempt.
+ *
+ * The protocol and the reuse of the connection tell how well the http client
+ * keeps connections alive: the reuse rate is the fraction of requests
+ * for which {@link #connectionReused()} is true.
+ *
+ * @see MetricsListener
+ * @since 0.9.4
+ */
+public final class RequestMetrics {
+// ------------------------------ FIELDS ------------------------------
+
+    private final String name;
+    private final String url;
+    private final int statusCode;
+    private final String protocol;
+    private final Boolean connectionReused;
+    private final long requestBytes;
+    private final long responseBytes;
+    private final int retries;
+    private final long queueNanos;
+    private final long buildNanos;
+    private final long networkNanos;
+    private final long parseNanos;
+    private final long executionNanos;
+    private final long deliveryNanos;
+    private final boolean success;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public RequestMetrics(String name, String url, int statusCode,
+                          String protocol, Boolean connectionReused,
+                          long requestBytes, long responseBytes, int retries,
+                          long queueNanos, long buildNanos, long networkNanos, long parseNanos,
+                          long executionNanos, long deliveryNanos, boolean success) {
+        this.name = name;
+        this.url = url;
+        this.statusCode = statusCode;
+        this.protocol = protocol;
+        this.connectionReused = connectionReused;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.retries = retries;
+        this.queueNanos = queueNanos;
+        this.buildNanos = buildNanos;
+        this.networkNanos = networkNanos;
+        this.parseNanos = parseNanos;
+        this.executionNanos = executionNanos;
+        this.deliveryNanos = deliveryNanos;
+        this.success = success;
+    }
+
+// ------------------------ CANONICAL METHODS ------------------------
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s %s status=%d protocol=%s reused=%s retries=%d sent=%d received=%d queue=%.2fms build=%.2fms " +
+                "network=%.2fms parse=%.2fms execution=%.2fms delivery=%.2fms total=%.2fms %s",
+                name, url, statusCode, protocol, connectionReused, retries, requestBytes, responseBytes,
+                millis(queueNanos), millis(buildNanos), millis(networkNanos), millis(parseNanos),
+                millis(executionNanos), millis(deliveryNanos), millis(totalNanos()),
+                success ? "ok" : "failed");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * @return the simple class name of the task that ran the request
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the url requested, null if no http request was made
+     */
+    public String url() {
+        return url;
+    }
+
+    /**
+     * @return the http status of the response, 0 if no response was received
+     */
+    public int statusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the protocol of the response as named by ALPN, such as <code>http/1.1</code>
+     * or <code>h2</code>, null if no response was received
+     */
+    public String protocol() {
+        return protocol;
+    }
+
+    /**
+     * @return true if the response was received on a connection that had already
+     * served other requests, null if the http client does not tell
+     */
+    public Boolean connectionReused() {
+        return connectionReused;
+    }
+
+    /**
+     * @return the length of the request body, -1 if unknown
+     */
+    public long requestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return the length of the response body as declared by the server, -1 if unknown
+     */
+    public long responseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return how many times the request was repeated after refreshing the session
+     */
+    public int retries() {
+        return retries;
+    }
+
+    /**
+     * @return the time spent waiting for a dispatcher worker, 0 for synchronous requests
+     */
+    public long queueNanos() {
+        return queueNanos;
+    }
+
+    /**
+     * @return the time spent building the http request
+     */
+    public long buildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * @return the time from sending the request to receiving the response headers,
+     * including connection setup
+     */
+    public long networkNanos() {
+        return networkNanos;
+    }
+
+    /**
+     * @return the time spent reading and parsing the response body
+     */
+    public long parseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * @return the time the request spent executing on the worker, all the phases included
+     */
+    public long executionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * @return the time from the end of the execution to the end of the callback
+     */
+    public long deliveryNanos() {
+        return deliveryNanos;
+    }
+
+    public long totalNanos() {
+        return queueNanos + executionNanos + deliveryNanos;
+    }
+
+    /**
+     * @return true if the request completed successfully
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import com.baasbox.android.BaasMainThreadException;
+import com.baasbox.android.BlockingCallListener;
+import com.baasbox.android.MainThreadPolicy;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Applies the {@link MainThreadPolicy} to the calls that block
+ * waiting for a request.
+ */
+public final class BlockingCallDetector {
+// ------------------------------ FIELDS ------------------------------
+
+    public static final BlockingCallDetector NONE = new BlockingCallDetector(MainThreadPolicy.ALLOW, null);
+
+    private final MainThreadPolicy policy;
+    private final BlockingCallListener listener;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public BlockingCallDetector(MainThreadPolicy policy, BlockingCallListener listener) {
+        this.policy = policy == null ? MainThreadPolicy.ALLOW : policy;
+        this.listener = listener;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Invoked before blocking on <code>task</code>
+     *
+     * @return the time the call started if it must be reported, -1 otherwise
+     */
+    long enter(Task<?> task, String kind) {
+        if (policy == MainThreadPolicy.ALLOW || !Platform.get().isMainThread()) {
+            return -1;
+        }
+        if (policy == MainThreadPolicy.THROW) {
+            throw fromCaller(new BaasMainThreadException(describe(task, kind) + " called on the main thread"));
+        }
+        return System.nanoTime();
+    }
+
+    void exit(Task<?> task, String kind, long start) {
+        if (start < 0) {
+            return;
+        }
+        long blocked = System.nanoTime() - start;
+        String call = describe(task, kind);
+        BaasMainThreadException where = fromCaller(new BaasMainThreadException(String.format(Locale.US,
+                "%s blocked the main thread for %.1f ms", call, blocked / 1e6)));
+        if (listener == null) {
+            Logger.warn(where, "blocking call on the main thread");
+        } else {
+            listener.onBlockingCall(call, blocked, where);
+        }
+    }
+
+    /**
+     * Drops the frames of the dispatchers so that the trace starts at the api call
+     */
+    private static BaasMainThreadException fromCaller(BaasMainThreadException e) {
+        StackTraceElement[] stack = e.getStackTrace();
+        String name = BlockingCallDetector.class.getName();
+        String impl = name.substring(0, name.lastIndexOf('.') + 1);
+        int skip = 0;
+        while (skip < stack.length - 1 && stack[skip].getClassName().startsWith(impl)) {
+            skip++;
+        }
+        e.setStackTrace(Arrays.copyOfRange(stack, skip, stack.length));
+        return e;
+    }
+
+    private static String describe(Task<?> task, String kind) {
+        String name = task.getClass().getName();
+        return kind + ' ' + name.substring(name.lastIndexOf('.') + 1);
+    }
+}
@@ -27,4 +27,6 @@ public final class Constants {
     public static final int PRIORITY_HIGH = 2;
     public static final int PRIORITY_MASK = PRIORITY_LOW|PRIORITY_HIGH;
 
+    public static final int LOCAL_FIRST = 1<<2;
+
 }
@@ -20,6 +20,7 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -152,6 +153,8 @@ public final class DiskLruCache implements Closeable {
     private final LinkedHashMap<String, Entry> lruEntries =
             new LinkedHashMap<String, Entry>(0, 0.75f, true);
     private int redundantOpCount;
+    private long evictionCount;
+    private long journalRebuildCount;
 
     /**
      * To differentiate between old and current snapshots, each entry is given
@@ -225,7 +228,7 @@ public final class DiskLruCache implements Closeable {
                 cache.readJournal();
                 cache.processJournal();
                 cache.journalWriter = new BufferedWriter(
-                        new OutputStreamWriter(new FileOutputStream(cache.journalFile, true), Util.US_ASCII));
+                        new OutputStreamWriter(new FileOutputStream(cache.journalFile, true), IOUtil.US_ASCII));
                 return cache;
             } catch (IOException journalIsCorrupt) {
                 System.out
@@ -261,7 +264,7 @@ public final class DiskLruCache implements Closeable {
     }
 
     private void readJournal() throws IOException {
-        StrictLineReader reader = new StrictLineReader(new FileInputStream(journalFile), Util.US_ASCII);
+        StrictLineReader reader = new StrictLineReader(new FileInputStream(journalFile), IOUtil.US_ASCII);
         try {
             String magic = reader.readLine();
             String version = reader.readLine();
@@ -288,7 +291,7 @@ public final class DiskLruCache implements Closeable {
             }
             redundantOpCount = lineCount - lruEntries.size();
         } finally {
-            Util.closeQuietly(reader);
+            IOUtil.closeQuietly(reader);
         }
     }
 
@@ -361,7 +364,7 @@ public final class DiskLruCache implements Closeable {
      */
     public void delete() throws IOException {
         close();
-        Util.deleteContents(directory);
+        IOUtil.deleteContents(directory);
     }
 
     /**
@@ -391,7 +394,7 @@ public final class DiskLruCache implements Closeable {
         }
 
         Writer writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(journalFileTmp), Util.US_ASCII));
+                new OutputStreamWriter(new FileOutputStream(journalFileTmp), IOUtil.US_ASCII));
         try {
             writer.write(MAGIC);
             writer.write("\n");
@@ -419,13 +422,14 @@ public final class DiskLruCache implements Closeable {
         }
         renameTo(journalFileTmp, journalFile, false);
         journalFileBackup.delete();
+        journalRebuildCount++;
 
         journalWriter = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(journalFile, true), Util.US_ASCII));
+                new OutputStreamWriter(new FileOutputStream(journalFile, true), IOUtil.US_ASCII));
     }
 
     private static String inputStreamToString(InputStream in) throws IOException {
-        return Util.readFully(new InputStreamReader(in, Util.UTF_8));
+        return IOUtil.readFully(new InputStreamReader(in, IOUtil.UTF_8));
     }
 
 // --------------------- GETTER / SETTER METHODS ---------------------
@@ -569,7 +573,9 @@ public final class DiskLruCache implements Closeable {
     private void trimToSize() throws IOException {
         while (size > maxSize) {
             Map.Entry<String, Entry> toEvict = lruEntries.entrySet().iterator().next();
-            remove(toEvict.getKey());
+            if (remove(toEvict.getKey())) {
+                evictionCount++;
+            }
         }
     }
 
@@ -636,7 +642,7 @@ public final class DiskLruCache implements Closeable {
             // A file must have been deleted manually!
             for (int i = 0; i < valueCount; i++) {
                 if (ins[i] != null) {
-                    Util.closeQuietly(ins[i]);
+                    IOUtil.closeQuietly(ins[i]);
                 } else {
                     break;
                 }
@@ -678,6 +684,50 @@ public final class DiskLruCache implements Closeable {
         return size;
     }
 
+    /**
+     * Returns the number of entries evicted to keep the cache within its maximum size.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of times the journal has been compacted.
+     */
+    public synchronized long getJournalRebuildCount() {
+        return journalRebuildCount;
+    }
+
+    /**
+     * Returns the keys of the readable entries starting with {@code prefix},
+     * in least recently used order.
+     */
+    public synchronized List<String> keys(String prefix) {
+        List<String> keys = new ArrayList<String>();
+        for (Entry entry : lruEntries.values()) {
+            if (entry.readable && entry.key.startsWith(prefix)) {
+                keys.add(entry.key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the number of bytes used by the entry named {@code key},
+     * or -1 if it does not exist.
+     */
+    public synchronized long size(String key) {
+        Entry entry = lruEntries.get(key);
+        if (entry == null || !entry.readable) {
+            return -1;
+        }
+        long total = 0;
+        for (long len : entry.lengths) {
+            total += len;
+        }
+        return total;
+    }
+
 // -------------------------- INNER CLASSES --------------------------
 
     /**
@@ -728,7 +778,7 @@ public final class DiskLruCache implements Closeable {
 
         public void close() {
             for (InputStream in : ins) {
-                Util.closeQuietly(in);
+                IOUtil.closeQuietly(in);
             }
         }
     }
@@ -815,10 +865,10 @@ public final class DiskLruCache implements Closeable {
         public void set(int index, String value) throws IOException {
             Writer writer = null;
             try {
-                writer = new OutputStreamWriter(newOutputStream(index), Util.UTF_8);
+                writer = new OutputStreamWriter(newOutputStream(index), IOUtil.UTF_8);
                 writer.write(value);
             } finally {
-                Util.closeQuietly(writer);
+                IOUtil.closeQuietly(writer);
             }
         }
 
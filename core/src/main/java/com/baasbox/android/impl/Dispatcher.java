@@ -15,13 +15,10 @@
 
 package com.baasbox.android.impl;
 
-import android.os.Handler;
-import android.os.Looper;
-import android.os.Process;
-import com.baasbox.android.BaasBox;
 import com.baasbox.android.BaasHandler;
 import com.baasbox.android.BaasResult;
 import com.baasbox.android.ExceptionHandler;
+import com.baasbox.android.MetricsListener;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -36,21 +33,25 @@ public final class Dispatcher {
 
     private static final AtomicInteger SEQUENCE = new AtomicInteger();
 
-    final Handler defaultMainHandler = new Handler(Looper.getMainLooper());
-
-
     private final PriorityBlockingQueue<Task<?>> taskQueue;
     private final ConcurrentMap<Integer, Task<?>> liveAsyncs;
     private final ExceptionHandler exceptionHandler;
     private final Worker[] workers;
-    private final BaasBox box;
+    final MetricsListener metricsListener;
+    private final BlockingCallDetector blockingCalls;
     private volatile boolean quit;
 
 // --------------------------- CONSTRUCTORS ---------------------------
-    public Dispatcher(BaasBox box) {
-        this.box = box;
-        this.exceptionHandler = setHandler(box.config.exceptionHandler);
-        this.workers = createWorkers(box.config.workerThreads);
+    public Dispatcher(int workerThreads, ExceptionHandler exceptionHandler) {
+        this(workerThreads, exceptionHandler, null, BlockingCallDetector.NONE);
+    }
+
+    public Dispatcher(int workerThreads, ExceptionHandler exceptionHandler,
+                      MetricsListener metricsListener, BlockingCallDetector blockingCalls) {
+        this.metricsListener = metricsListener;
+        this.blockingCalls = blockingCalls;
+        this.exceptionHandler = setHandler(exceptionHandler);
+        this.workers = createWorkers(workerThreads);
         this.taskQueue = new PriorityBlockingQueue<Task<?>>(16);
         this.liveAsyncs = new ConcurrentHashMap<Integer, Task<?>>(16, 0.75f, 1);
     }
@@ -77,6 +78,13 @@ public final class Dispatcher {
 
 // -------------------------- OTHER METHODS --------------------------
 
+    /**
+     * @return the number of worker threads running the tasks
+     */
+    public int workerCount() {
+        return workers.length;
+    }
+
     public <R> BaasResult<R> await(int requestId) {
         Task<R> task = (Task<R>) liveAsyncs.get(requestId);
         if (task == null) {
@@ -84,7 +92,9 @@ public final class Dispatcher {
         } else if (task.result != null) {
             return task.result;
         } else {
+            long blocking = blockingCalls.enter(task, "await");
             task.await();
+            blockingCalls.exit(task, "await", blocking);
             return task.result;
         }
     }
@@ -101,7 +111,7 @@ public final class Dispatcher {
 
     void finish(Task<?> req) {
         this.liveAsyncs.remove(req.seqNumber, req);
-        Logger.info("%s finished", req);
+        Logger.trace("%s finished", req);
     }
 
     public int post(Task<?> request) {
@@ -157,7 +167,7 @@ public final class Dispatcher {
 
         @Override
         public void run() {
-            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            Platform.get().setBackgroundPriority();
             Task<?> task;
             while (true) {
                 try {
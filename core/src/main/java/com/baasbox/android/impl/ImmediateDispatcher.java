@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import com.baasbox.android.BaasException;
+import com.baasbox.android.BaasResult;
+import com.baasbox.android.MetricsListener;
+
+/**
+ * Created by eto on 20/01/14.
+ */
+public final class ImmediateDispatcher {
+// ------------------------------ FIELDS ------------------------------
+
+    private final MetricsListener metricsListener;
+    private final BlockingCallDetector blockingCalls;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public ImmediateDispatcher() {
+        this(null, BlockingCallDetector.NONE);
+    }
+
+    public ImmediateDispatcher(MetricsListener metricsListener, BlockingCallDetector blockingCalls) {
+        this.metricsListener = metricsListener;
+        this.blockingCalls = blockingCalls;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    public <R> BaasResult<R> execute(Task<R> request) {
+        long blocking = blockingCalls.enter(request, "sync");
+        BaasResult<R> result;
+        if (metricsListener == null) {
+            result = call(request);
+        } else {
+            request.trace(metricsListener);
+            result = call(request);
+            request.report(result);
+        }
+        blockingCalls.exit(request, "sync", blocking);
+        return result;
+    }
+
+    private static <R> BaasResult<R> call(Task<R> request) {
+        try {
+            R r = request.asyncCall();
+            return BaasResult.success(r);
+        } catch (BaasException e) {
+            return BaasResult.failure(e);
+        }
+    }
+}
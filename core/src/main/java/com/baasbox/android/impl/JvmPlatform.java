@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+
+/**
+ * Platform used outside of android: callbacks run in order
+ * on a single daemon thread and logs go to java.util.logging.
+ */
+public class JvmPlatform extends Platform {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final Level[] LEVELS = {
+            Level.FINEST, Level.FINEST, Level.FINEST,
+            Level.FINE, Level.INFO, Level.WARNING, Level.SEVERE
+    };
+
+    private final ExecutorService callbacks = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "BaasBox-Callbacks");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    public Executor callbackExecutor() {
+        return callbacks;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return false;
+    }
+
+    /**
+     * Only warnings and errors are logged unless a level
+     * is configured for the BAASBOX logger
+     */
+    @Override
+    public boolean isLoggable(int level) {
+        java.util.logging.Logger logger = java.util.logging.Logger.getLogger(Logger.TAG);
+        if (logger.getLevel() == null) {
+            return level >= WARN;
+        }
+        return logger.isLoggable(toLevel(level));
+    }
+
+    @Override
+    public void log(int level, String tag, String message, Throwable t) {
+        java.util.logging.Logger.getLogger(tag).logp(toLevel(level), tag, null, message, t);
+    }
+
+    private static Level toLevel(int level) {
+        return LEVELS[Math.max(0, Math.min(level, LEVELS.length - 1))];
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import com.baasbox.android.LogSink;
+
+import java.util.Locale;
+
+import static com.baasbox.android.LogSink.DEBUG;
+import static com.baasbox.android.LogSink.ERROR;
+import static com.baasbox.android.LogSink.INFO;
+import static com.baasbox.android.LogSink.NONE;
+import static com.baasbox.android.LogSink.VERBOSE;
+import static com.baasbox.android.LogSink.WARN;
+
+/**
+ * Logging of the sdk.
+ *
+ * Calls below the current level cost a comparison: overloads take a fixed
+ * number of arguments, so no array is allocated, and messages are formatted
+ * only by the sink that writes them.
+ * Records go to the platform log unless a {@link LogSink} is set.
+ *
+ * Created by Andrea Tortorella on 18/01/14.
+ */
+public final class Logger {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final boolean ENABLED = true;
+    static final String TAG = "BAASBOX";
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final LogSink PLATFORM_SINK = new LogSink() {
+        @Override
+        public void log(int level, String tag, String format, Object[] args, Throwable error) {
+            Platform.get().log(level, tag, format(format, args), error);
+        }
+    };
+
+    private static volatile int level = platformLevel();
+    private static volatile LogSink sink = PLATFORM_SINK;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private Logger(){
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Sets the minimum level of the records that are written
+     *
+     * @param minLevel one of the levels of {@link LogSink}, 0 or less to use the level of the platform
+     */
+    public static void setLevel(int minLevel) {
+        level = minLevel <= 0 ? platformLevel() : minLevel;
+    }
+
+    /**
+     * Sets where records are written
+     *
+     * @param logSink the sink, null to write to the platform log
+     */
+    public static void setSink(LogSink logSink) {
+        sink = logSink == null ? PLATFORM_SINK : logSink;
+    }
+
+    public static boolean isLoggable(int minLevel) {
+        return ENABLED && minLevel >= level;
+    }
+
+    /**
+     * Formats a record received by a {@link LogSink}
+     */
+    public static String format(String format, Object[] args) {
+        return args.length == 0 ? format : String.format(Locale.US, format, args);
+    }
+
+    private static int platformLevel() {
+        Platform platform = Platform.get();
+        for (int l = VERBOSE; l <= ERROR; l++) {
+            if (platform.isLoggable(l)) return l;
+        }
+        return NONE;
+    }
+
+    private static void write(int recordLevel, Throwable t, String format, Object[] args) {
+        try {
+            sink.log(recordLevel, TAG, format, args, t);
+        } catch (RuntimeException e) {
+            // logging must never break the caller
+        }
+    }
+
+    public static void trace(String message) {
+        if (ENABLED && VERBOSE >= level) write(VERBOSE, null, message, NO_ARGS);
+    }
+
+    public static void trace(String format, long arg) {
+        if (ENABLED && VERBOSE >= level) write(VERBOSE, null, format, new Object[]{arg});
+    }
+
+    public static void trace(String format, Object arg) {
+        if (ENABLED && VERBOSE >= level) write(VERBOSE, null, format, new Object[]{arg});
+    }
+
+    public static void trace(String format, Object arg1, Object arg2) {
+        if (ENABLED && VERBOSE >= level) write(VERBOSE, null, format, new Object[]{arg1, arg2});
+    }
+
+    public static void trace(String format, Object arg1, Object arg2, Object arg3) {
+        if (ENABLED && VERBOSE >= level) write(VERBOSE, null, format, new Object[]{arg1, arg2, arg3});
+    }
+
+    public static void debug(String message) {
+        if (ENABLED && DEBUG >= level) write(DEBUG, null, message, NO_ARGS);
+    }
+
+    public static void debug(String format, long arg) {
+        if (ENABLED && DEBUG >= level) write(DEBUG, null, format, new Object[]{arg});
+    }
+
+    public static void debug(String format, Object arg) {
+        if (ENABLED && DEBUG >= level) write(DEBUG, null, format, new Object[]{arg});
+    }
+
+    public static void debug(String format, Object arg1, Object arg2) {
+        if (ENABLED && DEBUG >= level) write(DEBUG, null, format, new Object[]{arg1, arg2});
+    }
+
+    public static void debug(String format, Object arg1, Object arg2, Object arg3) {
+        if (ENABLED && DEBUG >= level) write(DEBUG, null, format, new Object[]{arg1, arg2, arg3});
+    }
+
+    public static void info(String message) {
+        if (ENABLED && INFO >= level) write(INFO, null, message, NO_ARGS);
+    }
+
+    public static void info(String format, long arg) {
+        if (ENABLED && INFO >= level) write(INFO, null, format, new Object[]{arg});
+    }
+
+    public static void info(String format, Object arg) {
+        if (ENABLED && INFO >= level) write(INFO, null, format, new Object[]{arg});
+    }
+
+    public static void info(String format, Object arg1, Object arg2) {
+        if (ENABLED && INFO >= level) write(INFO, null, format, new Object[]{arg1, arg2});
+    }
+
+    public static void info(String format, Object arg1, Object arg2, Object arg3) {
+        if (ENABLED && INFO >= level) write(INFO, null, format, new Object[]{arg1, arg2, arg3});
+    }
+
+    public static void info(Throwable t, String message) {
+        if (ENABLED && INFO >= level) write(INFO, t, message, NO_ARGS);
+    }
+
+    public static void info(Throwable t, String format, long arg) {
+        if (ENABLED && INFO >= level) write(INFO, t, format, new Object[]{arg});
+    }
+
+    public static void info(Throwable t, String format, Object arg) {
+        if (ENABLED && INFO >= level) write(INFO, t, format, new Object[]{arg});
+    }
+
+    public static void info(Throwable t, String format, Object arg1, Object arg2) {
+        if (ENABLED && INFO >= level) write(INFO, t, format, new Object[]{arg1, arg2});
+    }
+
+    public static void warn(String message) {
+        if (ENABLED && WARN >= level) write(WARN, null, message, NO_ARGS);
+    }
+
+    public static void warn(String format, long arg) {
+        if (ENABLED && WARN >= level) write(WARN, null, format, new Object[]{arg});
+    }
+
+    public static void warn(String format, Object arg) {
+        if (ENABLED && WARN >= level) write(WARN, null, format, new Object[]{arg});
+    }
+
+    public static void warn(String format, Object arg1, Object arg2) {
+        if (ENABLED && WARN >= level) write(WARN, null, format, new Object[]{arg1, arg2});
+    }
+
+    public static void warn(String format, Object arg1, Object arg2, Object arg3) {
+        if (ENABLED && WARN >= level) write(WARN, null, format, new Object[]{arg1, arg2, arg3});
+    }
+
+    public static void warn(Throwable t, String message) {
+        if (ENABLED && WARN >= level) write(WARN, t, message, NO_ARGS);
+    }
+
+    public static void warn(Throwable t, String format, long arg) {
+        if (ENABLED && WARN >= level) write(WARN, t, format, new Object[]{arg});
+    }
+
+    public static void warn(Throwable t, String format, Object arg) {
+        if (ENABLED && WARN >= level) write(WARN, t, format, new Object[]{arg});
+    }
+
+    public static void warn(Throwable t, String format, Object arg1, Object arg2) {
+        if (ENABLED && WARN >= level) write(WARN, t, format, new Object[]{arg1, arg2});
+    }
+
+    public static void error(String message) {
+        if (ENABLED && ERROR >= level) write(ERROR, null, message, NO_ARGS);
+    }
+
+    public static void error(String format, long arg) {
+        if (ENABLED && ERROR >= level) write(ERROR, null, format, new Object[]{arg});
+    }
+
+    public static void error(String format, Object arg) {
+        if (ENABLED && ERROR >= level) write(ERROR, null, format, new Object[]{arg});
+    }
+
+    public static void error(String format, Object arg1, Object arg2) {
+        if (ENABLED && ERROR >= level) write(ERROR, null, format, new Object[]{arg1, arg2});
+    }
+
+    public static void error(String format, Object arg1, Object arg2, Object arg3) {
+        if (ENABLED && ERROR >= level) write(ERROR, null, format, new Object[]{arg1, arg2, arg3});
+    }
+
+    public static void error(Throwable t, String message) {
+        if (ENABLED && ERROR >= level) write(ERROR, t, message, NO_ARGS);
+    }
+
+    public static void error(Throwable t, String format, long arg) {
+        if (ENABLED && ERROR >= level) write(ERROR, t, format, new Object[]{arg});
+    }
+
+    public static void error(Throwable t, String format, Object arg) {
+        if (ENABLED && ERROR >= level) write(ERROR, t, format, new Object[]{arg});
+    }
+
+    public static void error(Throwable t, String format, Object arg1, Object arg2) {
+        if (ENABLED && ERROR >= level) write(ERROR, t, format, new Object[]{arg1, arg2});
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import com.baasbox.android.LogSink;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The few services the core needs from the platform it runs on:
+ * where callbacks are delivered, logging and thread priorities.
+ *
+ * On android the implementation in the library module is used,
+ * on a plain jvm callbacks are delivered on a single daemon thread.
+ */
+public abstract class Platform {
+// ------------------------------ FIELDS ------------------------------
+
+    public static final int VERBOSE = LogSink.VERBOSE;
+    public static final int DEBUG = LogSink.DEBUG;
+    public static final int INFO = LogSink.INFO;
+    public static final int WARN = LogSink.WARN;
+    public static final int ERROR = LogSink.ERROR;
+
+    private static final String ANDROID_PLATFORM = "com.baasbox.android.impl.AndroidPlatform";
+
+    private static volatile Platform platform;
+
+// -------------------------- STATIC METHODS --------------------------
+
+    public static Platform get() {
+        Platform p = platform;
+        if (p == null) {
+            synchronized (Platform.class) {
+                p = platform;
+                if (p == null) {
+                    platform = p = find();
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Replaces the detected platform, must be called before
+     * any request is submitted.
+     */
+    public static void set(Platform p) {
+        if (p == null) throw new IllegalArgumentException("platform cannot be null");
+        platform = p;
+    }
+
+    private static Platform find() {
+        // both dalvik and art report this vm name
+        if ("Dalvik".equals(System.getProperty("java.vm.name"))) {
+            try {
+                return (Platform) Class.forName(ANDROID_PLATFORM).newInstance();
+            } catch (ClassNotFoundException e) {
+                // the android module is not there: fallback to the jvm
+            } catch (InstantiationException e) {
+                throw new IllegalStateException("cannot create the android platform", e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("cannot create the android platform", e);
+            }
+        }
+        return new JvmPlatform();
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns the executor that will deliver the callbacks
+     * of requests submitted from the current thread
+     */
+    public abstract Executor callbackExecutor();
+
+    public abstract boolean isMainThread();
+
+    public abstract boolean isLoggable(int level);
+
+    public abstract void log(int level, String tag, String message, Throwable t);
+
+    /**
+     * Invoked by the dispatcher workers when they start
+     */
+    public void setBackgroundPriority() {
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import com.baasbox.android.BaasRuntimeException;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Building blocks of the urls and headers of requests,
+ * used by the request factory of the library.
+ */
+public final class Requests {
+// --------------------------- CONSTRUCTORS ---------------------------
+    private Requests() {
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Returns the root of the api, always ending with a slash
+     */
+    public static String apiRoot(boolean https, String domain, int port, String basePath) {
+        StringBuilder api = new StringBuilder();
+        api.append(https ? "https://" : "http://");
+        api.append(domain);
+        api.append(':');
+        api.append(port);
+        if (basePath == null || basePath.length() == 0) {
+            api.append('/');
+        } else if (basePath.startsWith("/")) {
+            api.append(basePath);
+        } else {
+            api.append('/');
+            api.append(basePath);
+        }
+        return api.toString();
+    }
+
+    /**
+     * Appends <code>pattern</code> to <code>apiRoot</code> replacing each <code>{}</code>
+     * in order with one of <code>params</code>. The params are inserted as they are.
+     */
+    public static String endpoint(String apiRoot, String pattern, Object... params) {
+        if (params == null || params.length == 0) {
+            return apiRoot + pattern;
+        }
+        StringBuilder sb = new StringBuilder(apiRoot.length() + pattern.length() + 16 * params.length);
+        sb.append(apiRoot);
+        int from = 0;
+        for (Object param : params) {
+            int at = pattern.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            sb.append(pattern, from, at).append(param.toString());
+            from = at + 2;
+        }
+        return sb.append(pattern, from, pattern.length()).toString();
+    }
+
+    /**
+     * Appends <code>name=value</code> form encoded with <code>charset</code>,
+     * preceded by <code>&amp;</code> unless <code>sb</code> is empty.
+     * A null value is encoded as an empty one.
+     */
+    public static StringBuilder appendParam(StringBuilder sb, String name, String value, String charset) {
+        try {
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            sb.append(URLEncoder.encode(name, charset));
+            sb.append('=');
+            if (value != null) {
+                sb.append(URLEncoder.encode(value, charset));
+            }
+            return sb;
+        } catch (UnsupportedEncodingException e) {
+            throw new BaasRuntimeException("Charset " + charset + " is not supported", e);
+        }
+    }
+
+    /**
+     * Returns the value of the basic authorization header of <code>name</code>
+     */
+    public static String basicAuth(String name, String password) {
+        String plain = name + ':' + password;
+        return "Basic " + Base64.encodeToString(plain.getBytes(), Base64.NO_WRAP).trim();
+    }
+}
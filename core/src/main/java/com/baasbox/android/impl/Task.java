@@ -16,12 +16,13 @@
 package com.baasbox.android.impl;
 
 
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
-import com.baasbox.android.*;
+import com.baasbox.android.BaasException;
+import com.baasbox.android.BaasHandler;
+import com.baasbox.android.BaasResult;
+import com.baasbox.android.MetricsListener;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -35,13 +36,12 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
     volatile BaasResult<R> result;
     int seqNumber;
     volatile CountDownLatch latch;
-    protected BaasBox box;
-
 
     private AtomicBoolean taken = new AtomicBoolean(false);
-    private Handler postOn;
+    private Executor postOn;
     private Dispatcher dispatcher;
     private int priority;
+    private Trace trace;
     private final AtomicReference<BaasHandler<?>> suspendableHandler = new AtomicReference<BaasHandler<?>>();
 
 // --------------------------- CONSTRUCTORS ---------------------------
@@ -122,6 +122,9 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
                     if (curr != null) {
                         ((BaasHandler<R>) curr).handle(result);
                     }
+                    if (trace != null) {
+                        report(result);
+                    }
                     finish();
                 }
                 return;
@@ -148,7 +151,6 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
     }
 
     private void finish() {
-        Logger.debug("FINISHING");
         dispatcher.finish(this);
     }
 
@@ -164,14 +166,12 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
     final void bind(int seqNumber, Dispatcher dispatcher) {
         this.seqNumber = seqNumber;
         this.dispatcher = dispatcher;
+        if (dispatcher.metricsListener != null) {
+            this.trace = new Trace(dispatcher.metricsListener, System.nanoTime());
+        }
 
         if (postOn == null) {
-            Looper looper = Looper.myLooper();
-            if (looper == Looper.getMainLooper() || looper == null) {
-                this.postOn = dispatcher.defaultMainHandler;
-            } else {
-                this.postOn = new Handler(looper);
-            }
+            this.postOn = Platform.get().callbackExecutor();
         }
     }
 
@@ -184,6 +184,9 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
     }
 
     final void execute() {
+        if (trace != null) {
+            trace.startedAt = System.nanoTime();
+        }
         if (!takeAndVerifyCancel()) {
             try {
                 R value = asyncCall();
@@ -192,6 +195,63 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
                 result = BaasResult.failure(e);
             }
         }
+        if (trace != null) {
+            trace.executedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts timing a task that runs on the calling thread
+     */
+    final void trace(MetricsListener listener) {
+        long now = System.nanoTime();
+        trace = new Trace(listener, now);
+        trace.startedAt = now;
+    }
+
+    final void report(BaasResult<?> result) {
+        long now = System.nanoTime();
+        if (trace.executedAt == 0) {
+            trace.executedAt = now;
+        }
+        try {
+            trace.listener.onRequestCompleted(
+                    trace.toMetrics(getClass().getSimpleName(), now, result != null && result.isSuccess()));
+        } catch (RuntimeException e) {
+            Logger.warn(e, "metrics listener failed");
+        }
+    }
+
+    /**
+     * @return true if the phases of this task should be recorded
+     */
+    protected final boolean isTraced() {
+        return trace != null;
+    }
+
+    protected final void traceRequest(String url, long bytes, long buildNanos) {
+        trace.url = url;
+        trace.requestBytes = bytes;
+        trace.buildNanos = buildNanos;
+    }
+
+    protected final void traceResponse(int status, String protocol, Boolean connectionReused,
+                                       long bytes, long networkNanos) {
+        trace.status = status;
+        trace.protocol = protocol;
+        trace.connectionReused = connectionReused;
+        trace.responseBytes = bytes;
+        trace.networkNanos = networkNanos;
+    }
+
+    protected final void traceParse(long parseNanos) {
+        trace.parseNanos = parseNanos;
+    }
+
+    protected final void traceRetry() {
+        if (trace != null) {
+            trace.retries++;
+        }
     }
 
     private boolean takeAndVerifyCancel() {
@@ -251,7 +311,7 @@ public abstract class Task<R> implements Runnable, Comparable<Task<R>> {
     }
 
     final void post() {
-        postOn.post(this);
+        postOn.execute(this);
     }
 
     public int seq() {
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import com.baasbox.android.MetricsListener;
+import com.baasbox.android.RequestMetrics;
+
+/**
+ * Timestamps of a task, allocated only when a {@link MetricsListener} is installed.
+ */
+final class Trace {
+// ------------------------------ FIELDS ------------------------------
+
+    final MetricsListener listener;
+
+    long enqueuedAt;
+    long startedAt;
+    long executedAt;
+
+    String url;
+    int status;
+    String protocol;
+    Boolean connectionReused;
+    long requestBytes = -1;
+    long responseBytes = -1;
+    int retries;
+    long buildNanos;
+    long networkNanos;
+    long parseNanos;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    Trace(MetricsListener listener, long enqueuedAt) {
+        this.listener = listener;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    RequestMetrics toMetrics(String name, long deliveredAt, boolean success) {
+        return new RequestMetrics(name, url, status, protocol, connectionReused,
+                requestBytes, responseBytes, retries,
+                startedAt - enqueuedAt, buildNanos, networkNanos, parseNanos,
+                executedAt - startedAt, deliveredAt - executedAt, success);
+    }
+}
@@ -0,0 +1,4 @@
+# loaded reflectively by com.baasbox.android.impl.Platform
+-keep class com.baasbox.android.impl.AndroidPlatform {
+    <init>();
+}
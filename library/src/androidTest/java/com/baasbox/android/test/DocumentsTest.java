@@ -318,6 +318,51 @@ public class DocumentsTest extends BaasTestBase{
         }
     }
 
+    public void testPartialSaveKeepsNestedChanges(){
+        JsonObject nested = new JsonObject().put("a", 1L);
+        BaasDocument doc = new BaasDocument(testColl).put("nested", nested).put("n", 1L);
+        assertTrue(doc.saveSync().isSuccess());
+
+        doc.getObject("nested").put("a", 2L);
+        assertTrue(doc.saveSync(SaveMode.PARTIAL).isSuccess());
+
+        BaasDocument d = BaasDocument.fetchSync(testColl, doc.getId()).value();
+        assertEquals(2L, d.getObject("nested").getLong("a", -1));
+        assertEquals(1L, d.getLong("n", -1));
+    }
+
+    public void testPartialSaveOfManyFieldsChecksVersion(){
+        BaasDocument doc = new BaasDocument(testColl).put("a", 1L).put("b", 1L);
+        assertTrue(doc.saveSync().isSuccess());
+
+        BaasDocument other = BaasDocument.fetchSync(testColl, doc.getId()).value();
+        assertTrue(other.put("c", 1L).saveSync().isSuccess());
+
+        BaasResult<BaasDocument> res = doc.put("a", 2L).put("b", 2L).saveSync(SaveMode.PARTIAL);
+        assertTrue(res.isFailed());
+        assertEquals(BaasClientException.class, res.error().getClass());
+    }
+
+    public void testProjectedDocumentKeepsUnfetchedFields(){
+        BaasDocument doc = new BaasDocument(testColl).put("a", 1L).put("b", 1L);
+        assertTrue(doc.saveSync().isSuccess());
+
+        BaasQuery.Criteria criteria = BaasQuery.builder().projection("a").criteria();
+        BaasDocument projected = BaasDocument.fetchAllSync(testColl, criteria).value().get(0);
+        assertTrue(projected.isProjected());
+        assertFalse(projected.contains("b"));
+        // a whole update would drop b
+        assertTrue(projected.put("a", 3L).put("c", 3L).saveSync().isFailed());
+
+        // a single change is sent as a field update
+        projected = BaasDocument.fetchAllSync(testColl, criteria).value().get(0);
+        assertTrue(projected.put("a", 2L).saveSync().isSuccess());
+
+        BaasDocument d = BaasDocument.fetchSync(testColl, doc.getId()).value();
+        assertEquals(2L, d.getLong("a", -1));
+        assertEquals(1L, d.getLong("b", -1));
+    }
+
     public void testCannotRefreshUnboundDocument(){
         BaasDocument doc = new BaasDocument("coll");
         boolean hasThrown = false;
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.test;
+
+import com.baasbox.android.json.JsonBinder;
+import com.baasbox.android.json.JsonField;
+import com.baasbox.android.json.JsonModel;
+import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.test.common.TestBase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binders generated by the annotation processor for the models below.
+ */
+public class JsonBinderTest extends TestBase {
+
+    @JsonModel
+    static class Author {
+        String name;
+        @JsonField("_rank")
+        int rank;
+    }
+
+    @JsonModel
+    static class Post {
+        @JsonField("_id")
+        String id;
+        boolean published;
+        int likes;
+        long views;
+        double score;
+        float ratio;
+        Long rev;
+        Author author;
+        List<String> tags;
+        List<Author> editors;
+        JsonObject extra;
+        transient String ignored;
+    }
+
+    private static final String JSON =
+            "{\"_id\":\"p1\",\"published\":true,\"likes\":3,\"views\":12345678901,"
+          + "\"score\":2.5,\"ratio\":0.5,\"rev\":7,"
+          + "\"unknown\":{\"deep\":[1,{\"x\":null}]},"
+          + "\"author\":{\"name\":\"ann\",\"_rank\":2,\"unknown\":\"skipped\"},"
+          + "\"tags\":[\"a\",\"b\"],"
+          + "\"editors\":[{\"name\":\"bob\",\"_rank\":1},null],"
+          + "\"extra\":{\"k\":\"v\"},"
+          + "\"ignored\":\"no\"}";
+
+    public void testReadsEveryKindOfField() throws Exception {
+        Post p = JsonBinder.of(Post.class).decode(JSON.getBytes("UTF-8"));
+        assertEquals("p1", p.id);
+        assertTrue(p.published);
+        assertEquals(3, p.likes);
+        assertEquals(12345678901L, p.views);
+        assertEquals(2.5, p.score, 0);
+        assertEquals(0.5, p.ratio, 0);
+        assertEquals(Long.valueOf(7), p.rev);
+        assertEquals("ann", p.author.name);
+        assertEquals(2, p.author.rank);
+        assertEquals(Arrays.asList("a", "b"), p.tags);
+        assertEquals(2, p.editors.size());
+        assertEquals("bob", p.editors.get(0).name);
+        assertNull(p.editors.get(1));
+        assertEquals("v", p.extra.getString("k"));
+        assertNull(p.ignored);
+    }
+
+    public void testReadsFromStrings() {
+        Post p = JsonBinder.of(Post.class).decode(JSON);
+        assertEquals("p1", p.id);
+        assertEquals("ann", p.author.name);
+    }
+
+    public void testKeepsDefaultsOfMissingAndNullFields() {
+        Post p = JsonBinder.of(Post.class).decode("{\"likes\":null,\"author\":null}");
+        assertEquals(0, p.likes);
+        assertNull(p.author);
+        assertNull(p.tags);
+    }
+
+    public void testWritesRenamedFields() {
+        Post p = JsonBinder.of(Post.class).decode(JSON);
+        JsonObject o = JsonObject.decode(JsonBinder.of(Post.class).encode(p));
+        assertEquals("p1", o.getString("_id"));
+        assertFalse(o.contains("id"));
+        assertEquals(2L, o.getObject("author").getLong("_rank", -1));
+        assertFalse(o.contains("unknown"));
+        assertFalse(o.contains("ignored"));
+    }
+
+    public void testRoundTrips() {
+        JsonBinder<Post> binder = JsonBinder.of(Post.class);
+        Post p = binder.decode(JSON);
+        String encoded = binder.encode(p);
+        assertEquals(encoded, binder.encode(binder.decode(encoded)));
+    }
+
+    public void testBinderIsCached() {
+        assertSame(JsonBinder.of(Author.class), JsonBinder.of(Author.class));
+    }
+}
@@ -6,7 +6,9 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Bundle;
 import com.baasbox.android.json.JsonArray;
+import com.baasbox.android.json.JsonBinder;
 import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.JsonSelector;
 import com.baasbox.android.test.common.BaasTestBase;
 
 /**
@@ -25,6 +27,160 @@ public class JsonTest extends BaasTestBase{
         assertEquals(j,o);
     }
 
+    public void testUtf8Decoding() throws Exception{
+        JsonObject o = new JsonObject()
+                    .put("name", "caf\u00e9 \u6f22 \"quoted\"\n")
+                    .put("n", 12)
+                    .put("d", 1.5)
+                    .put("nested", new JsonArray().add(true).add(new JsonObject().put("k", "v")));
+
+        byte[] bytes = o.toString().getBytes("UTF-8");
+        assertEquals(o, JsonObject.decode(bytes));
+        assertEquals(o, JsonObject.decode(new java.io.ByteArrayInputStream(bytes)));
+    }
+
+    public void testUtf8Encoding() throws Exception{
+        JsonObject o = new JsonObject()
+                    .put("name", "caf\u00e9 \u6f22 \ud83d\ude00 \"quoted\"\n")
+                    .put("nested", new JsonArray().add(1.5).add(new JsonObject().put("k", "v")));
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        o.encode(out);
+        assertTrue(java.util.Arrays.equals(o.toString().getBytes("UTF-8"), out.toByteArray()));
+    }
+
+    public void testLazyDecoding() throws Exception{
+        JsonObject o = new JsonObject()
+                    .put("name", "caf\u00e9")
+                    .put("n", 12)
+                    .put("nested", new JsonArray().add(true).add(new JsonObject().put("k", "v")));
+
+        JsonObject lazy = JsonObject.decodeLazy(o.toString().getBytes("UTF-8"));
+        assertEquals("caf\u00e9", lazy.getString("name"));
+        JsonObject copy = lazy.copy();
+        lazy.getArray("nested").getObject(1).put("k", "changed");
+        assertEquals("v", copy.getArray("nested").getObject(1).getString("k"));
+        assertEquals(o, copy);
+    }
+
+    public void testCopyOnWrite(){
+        JsonObject o = new JsonObject()
+                    .put("k", "v")
+                    .put("nested", new JsonObject().put("a", new JsonArray().add(1)));
+        JsonObject copy = o.copy();
+        copy.getObject("nested").getArray("a").add(2);
+        o.put("k", "changed");
+
+        assertEquals(1, o.getObject("nested").getArray("a").size());
+        assertEquals(2, copy.getObject("nested").getArray("a").size());
+        assertEquals("v", copy.getString("k"));
+    }
+
+    public void testCopyIsSnapshotOfHandedOutValues() throws Exception{
+        JsonObject o = JsonObject.decode("{\"n\":{\"a\":1},\"l\":[{\"a\":1}]}");
+        JsonObject n = o.getObject("n");
+        JsonObject e = o.getArray("l").getObject(0);
+        JsonObject copy = o.copy();
+        n.put("a", 2);
+        e.put("a", 2);
+
+        assertEquals(1L, copy.getObject("n").getLong("a", -1));
+        assertEquals(1L, copy.getArray("l").getObject(0).getLong("a", -1));
+        assertEquals(2L, o.getObject("n").getLong("a", -1));
+        assertEquals(2L, o.getArray("l").getObject(0).getLong("a", -1));
+    }
+
+    public void testCopyIsSnapshotOfPutValues(){
+        JsonObject addr = new JsonObject().put("street", "s");
+        JsonArray tags = new JsonArray().add("a");
+        JsonObject o = new JsonObject().put("addr", addr).put("tags", tags);
+        JsonObject copy = o.copy();
+        addr.put("city", "milan");
+        tags.add("b");
+
+        assertFalse(copy.getObject("addr").contains("city"));
+        assertEquals(1, copy.getArray("tags").size());
+        assertEquals(new java.util.HashSet<String>(java.util.Arrays.asList("addr", "tags")), o.changedFields(copy));
+    }
+
+    public void testConcurrentCopies() throws Exception{
+        // copies of a shared tree, like the ones handed out by the query cache,
+        // are modified on different threads
+        final JsonObject shared = JsonObject.decode("{\"n\":{\"m\":{\"v\":0},\"l\":[{\"v\":0}]}}");
+        final int threads = 8;
+        final int rounds = 500;
+        final java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        final java.util.concurrent.atomic.AtomicReference<String> failure = new java.util.concurrent.atomic.AtomicReference<String>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long value = t + 1;
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < rounds; i++) {
+                            JsonObject copy = shared.copy();
+                            JsonObject n = copy.getObject("n");
+                            n.getObject("m").put("v", value);
+                            n.getArray("l").getObject(0).put("v", value);
+                            if (n.getObject("m").getLong("v", -1) != value ||
+                                n.getArray("l").getObject(0).getLong("v", -1) != value) {
+                                failure.compareAndSet(null, "lost a write on copy " + value);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        failure.compareAndSet(null, e.toString());
+                    }
+                }
+            };
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        assertNull(failure.get(), failure.get());
+        assertEquals(0L, shared.getObject("n").getObject("m").getLong("v", -1));
+        assertEquals(0L, shared.getObject("n").getArray("l").getObject(0).getLong("v", -1));
+    }
+
+    public void testChangedFields(){
+        JsonObject o = new JsonObject()
+                    .put("a", 1)
+                    .put("b", new JsonObject().put("x", "y"))
+                    .put("c", "s");
+        JsonObject base = o.copy();
+        assertTrue(o.changedFields(base).isEmpty());
+
+        o.getObject("b").put("x", "z");
+        o.remove("c");
+        assertEquals(new java.util.HashSet<String>(java.util.Arrays.asList("b", "c")), o.changedFields(base));
+    }
+
+    public void testSelectiveDecoding() throws Exception{
+        String json = "{\"title\":\"t\",\"body\":\"b\",\"author\":{\"name\":\"n\",\"age\":3},\"tags\":[{\"k\":1,\"v\":2}]}";
+        JsonSelector selector = JsonSelector.of("title", "author.name", "tags.k");
+        JsonObject expected = JsonObject.decode("{\"title\":\"t\",\"author\":{\"name\":\"n\"},\"tags\":[{\"k\":1}]}");
+        assertEquals(expected, JsonObject.decode(json, selector));
+        assertEquals(expected, JsonObject.decode(json.getBytes("UTF-8"), selector));
+        assertEquals(expected, JsonObject.decodeLazy(json.getBytes("UTF-8"), selector));
+    }
+
+    public void testProjectionKeepsWholeNestedFields() throws Exception{
+        String json = "{\"title\":\"t\",\"body\":\"b\",\"author\":{\"name\":\"n\",\"age\":3}}";
+        JsonSelector selector = JsonSelector.parse("title, author.name");
+        JsonObject expected = JsonObject.decode("{\"title\":\"t\",\"author\":{\"name\":\"n\",\"age\":3}}");
+        assertEquals(expected, JsonObject.decode(json, selector));
+    }
+
+    public void testListBinder() throws Exception{
+        JsonBinder<java.util.List<Long>> binder = JsonBinder.listOf(JsonBinder.LONG);
+        java.util.List<Long> values = binder.decode("[1,null,3]".getBytes("UTF-8"));
+        assertEquals(java.util.Arrays.asList(1L, null, 3L), values);
+        assertEquals("[1,null,3]", binder.encode(values));
+    }
+
     public void testIntentParcelability(){
         JsonObject o =new JsonObject().put("k", new JsonArray());
         Bundle b =new Bundle();
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2014.
+ *
+ * BaasBox - info@baasbox.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.test;
+
+import com.baasbox.android.BaasBox;
+import com.baasbox.android.BaasDocument;
+import com.baasbox.android.BaasHandler;
+import com.baasbox.android.BaasResult;
+import com.baasbox.android.BaasUser;
+import com.baasbox.android.impl.Logger;
+import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.net.OkClient;
+import com.baasbox.android.net.RestClient;
+import com.baasbox.android.test.common.MockServer;
+import com.baasbox.android.test.common.TestBase;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives thousands of concurrent calls through the sdk against a {@link MockServer}
+ * and reports latency percentiles and throughput of each {@link RestClient},
+ * and how many connections, thus tcp and tls handshakes over https, they open.
+ * Does not need a BaasBox server.
+ */
+public class LoadTest extends TestBase {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String COLLECTION = "load";
+    private static final int CALLS = 2000;
+    private static final int WORKERS = 8;
+    private static final long LATENCY_MILLIS = 5;
+    private static final int HANDSHAKE_CALLS = 1000;
+
+    private MockServer server;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    protected void beforeTest() throws Exception {
+        super.beforeTest();
+        server = new MockServer()
+                .setLatency(LATENCY_MILLIS)
+                .setPayloadSize(20)
+                .start();
+    }
+
+    @Override
+    protected void afterTest() throws Exception {
+        BaasBox.quitClient();
+        server.shutdown();
+        super.afterTest();
+    }
+
+    public void testHttpUrlConnectionClient() throws Exception {
+        // a null rest client selects the default one
+        run("HttpUrlConnectionClient", null);
+    }
+
+    public void testOkClient() throws Exception {
+        run("OkClient", new OkClient());
+    }
+
+    public void testHttpUrlConnectionClientHandshakes() throws Exception {
+        handshakes("HttpUrlConnectionClient", null);
+    }
+
+    public void testOkClientHandshakes() throws Exception {
+        handshakes("OkClient", new OkClient());
+    }
+
+    private void init(RestClient client) {
+        BaasBox.quitClient();
+        BaasBox.builder(getContext())
+               .setApiDomain("127.0.0.1")
+               .setPort(server.getPort())
+               .setRestClient(client)
+               .setWorkerThreads(WORKERS)
+               .setSessionTokenExpires(false)
+               .init();
+        BaasResult<BaasUser> login = BaasUser.withUserName("load")
+                                             .setPassword("load")
+                                             .loginSync();
+        assertTrue(login.toString(), login.isSuccess());
+    }
+
+    private void run(String name, RestClient client) throws Exception {
+        init(client);
+        final long[] latencies = new long[CALLS];
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(CALLS);
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            final int call = i;
+            final long submitted = System.nanoTime();
+            BaasHandler handler = new BaasHandler<Object>() {
+                @Override
+                public void handle(BaasResult<Object> result) {
+                    latencies[call] = System.nanoTime() - submitted;
+                    if (result.isFailed()) failures.incrementAndGet();
+                    done.countDown();
+                }
+            };
+            // a mix of writes, single reads and listings
+            switch (i % 3) {
+                case 0:
+                    BaasDocument.create(COLLECTION, new JsonObject().put("call", (long) i)).save(handler);
+                    break;
+                case 1:
+                    BaasDocument.fetch(COLLECTION, "doc" + i, handler);
+                    break;
+                default:
+                    BaasDocument.fetchAll(COLLECTION, handler);
+                    break;
+            }
+        }
+        assertTrue("calls did not complete", done.await(5, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        Logger.info(String.format(Locale.US,
+                "%s: %d calls in %d ms, %.1f calls/s, p50 %.2f ms, p99 %.2f ms, %d connections",
+                name, CALLS, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                CALLS / (elapsed / 1e9),
+                percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6,
+                server.getConnectionCount()));
+        assertEquals(0, failures.get());
+    }
+
+    /**
+     * Counts the connections opened for {@link #HANDSHAKE_CALLS} calls,
+     * half of which ignore the body of the response.
+     */
+    private void handshakes(String name, RestClient client) throws Exception {
+        init(client);
+        int connections = server.getConnectionCount();
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(HANDSHAKE_CALLS);
+        BaasHandler handler = new BaasHandler<Object>() {
+            @Override
+            public void handle(BaasResult<Object> result) {
+                if (result.isFailed()) failures.incrementAndGet();
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < HANDSHAKE_CALLS; i++) {
+            if (i % 2 == 0) {
+                BaasDocument.fetch(COLLECTION, "doc" + i, handler);
+            } else {
+                BaasDocument.delete(COLLECTION, "doc" + i, handler);
+            }
+        }
+        assertTrue("calls did not complete", done.await(5, TimeUnit.MINUTES));
+        int opened = server.getConnectionCount() - connections;
+        Logger.info(String.format(Locale.US, "%s: %d handshakes per %d calls",
+                name, opened, HANDSHAKE_CALLS));
+        assertEquals(0, failures.get());
+        // pooled connections are opened at most once per worker
+        // or, when idle connections are evicted, a few times more
+        assertTrue(name + " opened " + opened + " connections", opened < HANDSHAKE_CALLS / 10);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2014.
+ *
+ * BaasBox - info@baasbox.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.test;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.baasbox.android.BaasBox;
+import com.baasbox.android.BaasDocument;
+import com.baasbox.android.BaasMainThreadException;
+import com.baasbox.android.BaasResult;
+import com.baasbox.android.BaasUser;
+import com.baasbox.android.BlockingCallListener;
+import com.baasbox.android.MainThreadPolicy;
+import com.baasbox.android.test.common.MockServer;
+import com.baasbox.android.test.common.TestBase;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Synchronous calls made on the main looper under each {@link MainThreadPolicy}.
+ */
+public class MainThreadPolicyTest extends TestBase {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String COLLECTION = "policy";
+
+    private MockServer server;
+    private final AtomicReference<String> reportedCall = new AtomicReference<String>();
+    private final AtomicReference<Thread> reportedOn = new AtomicReference<Thread>();
+    private final AtomicLong reportedNanos = new AtomicLong();
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    protected void beforeTest() throws Exception {
+        super.beforeTest();
+        server = new MockServer().setLatency(20).start();
+    }
+
+    @Override
+    protected void afterTest() throws Exception {
+        BaasBox.quitClient();
+        server.shutdown();
+        super.afterTest();
+    }
+
+    public void testThrowFailsSyncCallsOnTheMainThread() throws Exception {
+        init(MainThreadPolicy.THROW);
+        int served = server.getRequestCount();
+        Object res = onMainThread(fetch());
+        assertTrue(String.valueOf(res), res instanceof BaasMainThreadException);
+        assertEquals("the request was sent", served, server.getRequestCount());
+
+        // other threads are not checked
+        assertTrue(fetch().call().isSuccess());
+    }
+
+    public void testReportLetsSyncCallsRunAndReportsThem() throws Exception {
+        init(MainThreadPolicy.REPORT);
+        Object res = onMainThread(fetch());
+        assertTrue(String.valueOf(res), res instanceof BaasResult && ((BaasResult<?>) res).isSuccess());
+        assertEquals("sync BaasDocument$Refresh", reportedCall.get());
+        assertSame(Looper.getMainLooper().getThread(), reportedOn.get());
+        assertTrue(reportedNanos.get() > 0);
+
+        reportedCall.set(null);
+        assertTrue(fetch().call().isSuccess());
+        assertNull("a call off the main thread was reported", reportedCall.get());
+    }
+
+    public void testAllowDoesNotCheck() throws Exception {
+        init(MainThreadPolicy.ALLOW);
+        Object res = onMainThread(fetch());
+        assertTrue(String.valueOf(res), res instanceof BaasResult && ((BaasResult<?>) res).isSuccess());
+        assertNull(reportedCall.get());
+    }
+
+    private static Callable<BaasResult<BaasDocument>> fetch() {
+        return new Callable<BaasResult<BaasDocument>>() {
+            @Override
+            public BaasResult<BaasDocument> call() {
+                return BaasDocument.fetchSync(COLLECTION, "doc");
+            }
+        };
+    }
+
+    /**
+     * Runs <code>call</code> on the main looper, returning what it returned or threw
+     */
+    private static Object onMainThread(final Callable<?> call) throws InterruptedException {
+        final AtomicReference<Object> outcome = new AtomicReference<Object>();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    outcome.set(call.call());
+                } catch (Exception e) {
+                    outcome.set(e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        });
+        assertTrue("main thread call did not complete", done.await(10, TimeUnit.SECONDS));
+        return outcome.get();
+    }
+
+    private void init(MainThreadPolicy policy) {
+        BaasBox.quitClient();
+        BaasBox.builder(getContext())
+               .setApiDomain("127.0.0.1")
+               .setPort(server.getPort())
+               .setSessionTokenExpires(false)
+               .setMainThreadPolicy(policy)
+               .setBlockingCallListener(new BlockingCallListener() {
+                   @Override
+                   public void onBlockingCall(String call, long blockedNanos, BaasMainThreadException where) {
+                       // asserted by the tests, a failure here would crash the main looper
+                       reportedNanos.set(where == null ? -1 : blockedNanos);
+                       reportedOn.set(Thread.currentThread());
+                       reportedCall.set(call);
+                   }
+               })
+               .init();
+        BaasResult<BaasUser> login = BaasUser.withUserName("policy")
+                                             .setPassword("policy")
+                                             .loginSync();
+        assertTrue(login.toString(), login.isSuccess());
+    }
+}
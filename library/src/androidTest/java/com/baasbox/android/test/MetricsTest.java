@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2014.
+ *
+ * BaasBox - info@baasbox.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.test;
+
+import com.baasbox.android.BaasBox;
+import com.baasbox.android.BaasDocument;
+import com.baasbox.android.BaasResult;
+import com.baasbox.android.BaasUser;
+import com.baasbox.android.MetricsListener;
+import com.baasbox.android.RequestMetrics;
+import com.baasbox.android.Rest;
+import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.net.HttpResponse;
+import com.baasbox.android.net.OkClient;
+import com.baasbox.android.net.RestClient;
+import com.baasbox.android.test.common.MockServer;
+import com.baasbox.android.test.common.TestBase;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics reported to the {@link MetricsListener} for calls to a {@link MockServer}.
+ */
+public class MetricsTest extends TestBase {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String COLLECTION = "metrics";
+
+    private final BlockingQueue<RequestMetrics> metrics = new LinkedBlockingQueue<RequestMetrics>();
+    private MockServer server;
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    protected void beforeTest() throws Exception {
+        super.beforeTest();
+        server = new MockServer().setPayloadSize(20).start();
+    }
+
+    @Override
+    protected void afterTest() throws Exception {
+        BaasBox.quitClient();
+        server.shutdown();
+        super.afterTest();
+    }
+
+    public void testReportsPhasesAndSizesOfCalls() throws Exception {
+        init(null);
+        BaasDocument doc = BaasDocument.create(COLLECTION, new JsonObject().put("call", 1L));
+        assertTrue(doc.saveSync().isSuccess());
+        RequestMetrics save = next();
+        assertEquals("Save", save.name());
+        assertTrue(save.url(), save.url().endsWith("/document/" + COLLECTION));
+        assertEquals(200, save.statusCode());
+        assertTrue(save.isSuccess());
+        // {"call":1}
+        assertEquals(10, save.requestBytes());
+        assertTrue(save.responseBytes() > 0);
+        assertPhases(save);
+
+        assertTrue(BaasDocument.fetchSync(COLLECTION, doc.getId()).isSuccess());
+        RequestMetrics fetch = next();
+        assertEquals("Refresh", fetch.name());
+        assertEquals(200, fetch.statusCode());
+        assertEquals(0, fetch.requestBytes());
+        assertPhases(fetch);
+
+        assertTrue(BaasDocument.fetchAllSync(COLLECTION).isSuccess());
+        RequestMetrics list = next();
+        assertTrue("a list of 20 is larger than a document", list.responseBytes() > fetch.responseBytes());
+    }
+
+    public void testReportsFailedCalls() throws Exception {
+        init(null);
+        BaasResult<JsonObject> res = BaasBox.rest().sync(Rest.Method.GET, "missing", null, true);
+        assertTrue(res.isFailed());
+        RequestMetrics missing = next();
+        assertEquals(404, missing.statusCode());
+        assertFalse(missing.isSuccess());
+        assertTrue(missing.responseBytes() > 0);
+    }
+
+    public void testOkClientReusesPooledConnections() throws Exception {
+        init(new OkClient(), -1);
+        BaasDocument doc = BaasDocument.create(COLLECTION, new JsonObject().put("call", 1L));
+        assertTrue(doc.saveSync().isSuccess());
+        next();
+        int connections = server.getConnectionCount();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(BaasDocument.fetchSync(COLLECTION, doc.getId()).isSuccess());
+            assertEquals(Boolean.TRUE, next().connectionReused());
+        }
+        assertEquals("sequential calls opened new connections", connections, server.getConnectionCount());
+    }
+
+    public void testOkClientWithoutIdleConnectionsReconnects() throws Exception {
+        init(new OkClient(), 0);
+        BaasDocument doc = BaasDocument.create(COLLECTION, new JsonObject().put("call", 1L));
+        assertTrue(doc.saveSync().isSuccess());
+        next();
+        int connections = server.getConnectionCount();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(BaasDocument.fetchSync(COLLECTION, doc.getId()).isSuccess());
+            assertEquals(Boolean.FALSE, next().connectionReused());
+        }
+        assertEquals(connections + 3, server.getConnectionCount());
+    }
+
+    private void assertPhases(RequestMetrics m) {
+        assertTrue(m.toString(), m.networkNanos() > 0);
+        assertTrue(m.toString(), m.buildNanos() >= 0);
+        assertTrue(m.toString(), m.parseNanos() >= 0);
+        assertTrue(m.toString(), m.executionNanos() >= m.networkNanos());
+        assertTrue(m.toString(), m.totalNanos() >= m.executionNanos());
+        assertEquals(String.valueOf(HttpResponse.HttpVersion.HTTP_1_1), m.protocol());
+        assertEquals(0, m.retries());
+    }
+
+    private RequestMetrics next() throws InterruptedException {
+        RequestMetrics m = metrics.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no metrics reported", m);
+        return m;
+    }
+
+    private void init(RestClient client) throws InterruptedException {
+        init(client, -1);
+    }
+
+    /**
+     * Inits the client, keeping at most <code>maxIdleConnections</code> in the pool
+     * or the default when negative
+     */
+    private void init(RestClient client, int maxIdleConnections) throws InterruptedException {
+        BaasBox.quitClient();
+        BaasBox.Builder builder = BaasBox.builder(getContext());
+        if (maxIdleConnections >= 0) {
+            builder.setConnectionPool(maxIdleConnections, 0);
+        }
+        builder.setApiDomain("127.0.0.1")
+               .setPort(server.getPort())
+               .setRestClient(client)
+               .setSessionTokenExpires(false)
+               .setMetricsListener(new MetricsListener() {
+                   @Override
+                   public void onRequestCompleted(RequestMetrics m) {
+                       metrics.add(m);
+                   }
+               })
+               .init();
+        BaasResult<BaasUser> login = BaasUser.withUserName("metrics")
+                                             .setPassword("metrics")
+                                             .loginSync();
+        assertTrue(login.toString(), login.isSuccess());
+        // the login and what it may trigger
+        Thread.sleep(100);
+        metrics.clear();
+    }
+}
@@ -66,4 +66,26 @@ public class ParcelablesTest extends TestBase {
         assertEquals(newDoc.getArray("Key3").getString(0),doc.getArray("Key3").getString(0));
     }
 
+    public void testCanParcelManyDocuments(){
+        java.util.ArrayList<BaasDocument> docs = new java.util.ArrayList<BaasDocument>();
+        for (int i = 0; i < 500; i++) {
+            BaasDocument doc = new BaasDocument("fake");
+            doc.put("index", i);
+            doc.put("name", "caf\u00e9 " + i);
+            doc.put("nested", new JsonObject().put("d", 1.5).put("list", new JsonArray().add(true).addNull()));
+            docs.add(doc);
+        }
+
+        Parcel p = Parcel.obtain();
+        p.writeTypedList(docs);
+        p.setDataPosition(0);
+        java.util.ArrayList<BaasDocument> back = p.createTypedArrayList(BaasDocument.CREATOR);
+        p.recycle();
+
+        assertEquals(docs.size(), back.size());
+        for (int i = 0; i < docs.size(); i++) {
+            assertEquals(docs.get(i).toJson().toString(), back.get(i).toJson().toString());
+        }
+    }
+
 }
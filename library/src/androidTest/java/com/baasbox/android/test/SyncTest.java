@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.test;
+
+import com.baasbox.android.*;
+import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.net.OkClient;
+import com.baasbox.android.test.common.BaasTestBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Incremental sync of a collection against the local store.
+ */
+public class SyncTest extends BaasTestBase {
+    private static final String COLLECTION = "synced";
+    private static final String MARK = "rev";
+    private static final String USER = "syncuser";
+
+    private int counter;
+    private String coll;
+
+    @Override
+    protected BaasBox initBaasbox(BaasBox.Config.AuthType auth) {
+        BaasBox.quitClient();
+        return BaasBox.builder(getContext())
+                      .setApiDomain("10.0.2.2")
+                      .setAuthentication(auth)
+                      .setRestClient(new OkClient())
+                      .setSessionTokenExpires(false)
+                      .setLocalStoreEnabled(true)
+                      .init();
+    }
+
+    @Override
+    protected void beforeClass() throws Exception {
+        super.beforeClass();
+        resetDb();
+        BaasUser.withUserName(USER).setPassword("pass").signupSync();
+    }
+
+    @Override
+    protected void beforeTest() throws Exception {
+        super.beforeTest();
+        coll = COLLECTION + (counter++);
+        asAdmin(new Runnable() {
+            @Override
+            public void run() {
+                BaasResult<JsonObject> res = BaasBox.rest().sync(Rest.Method.POST, "admin/collection/" + coll, null, true);
+                assertTrue(res.isSuccess());
+            }
+        });
+        assertTrue(BaasUser.withUserName(USER).setPassword("pass").loginSync().isSuccess());
+    }
+
+    public void testSyncReturnsDocumentsSharingTheMark() {
+        save(0, 3, "a");
+        assertEquals(3, sync().size());
+
+        // created after the first sync with the same marker value
+        List<BaasDocument> late = save(3, 1, "a");
+        Set<String> ids = ids(sync());
+        assertTrue("document sharing the mark was skipped", ids.contains(late.get(0).getId()));
+    }
+
+    public void testSyncWalksEveryPage() {
+        // more than a page, with ties on the marker across the page boundary
+        List<BaasDocument> saved = new ArrayList<BaasDocument>();
+        for (int i = 0; i < 6; i++) {
+            saved.addAll(save(i * 30, 30, String.format(Locale.US, "%03d", i / 2)));
+        }
+        List<BaasDocument> synced = sync();
+        Set<String> ids = ids(synced);
+        assertEquals("pages overlap", synced.size(), ids.size());
+        assertEquals(ids(saved), ids);
+    }
+
+    public void testSyncComparesNumericMarksAsNumbers() {
+        // as strings "10" < "9", pages would be skipped or repeated
+        List<BaasDocument> saved = new ArrayList<BaasDocument>();
+        for (int i = 0; i < 150; i++) {
+            saved.add(new BaasDocument(coll).put(MARK, (long) (i / 3 + 8)).put("n", (long) i));
+        }
+        save(saved);
+        List<BaasDocument> synced = sync();
+        assertEquals("pages overlap", synced.size(), ids(synced).size());
+        assertEquals(ids(saved), ids(synced));
+
+        // only the documents sharing the last mark, 57, and the new one
+        List<BaasDocument> late = save(Arrays.asList(new BaasDocument(coll).put(MARK, 100L)));
+        Set<String> ids = ids(sync());
+        assertEquals(4, ids.size());
+        assertTrue(ids.contains(late.get(0).getId()));
+    }
+
+    public void testSyncRejectsMarkersThatAreNotFields() {
+        try {
+            BaasDocument.sync(coll, MARK + " > 0 or 1", RequestOptions.DEFAULT, BaasHandler.NOOP);
+            fail("the marker was used in the query");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private List<BaasDocument> save(int from, int count, String mark) {
+        List<BaasDocument> docs = new ArrayList<BaasDocument>(count);
+        for (int i = 0; i < count; i++) {
+            docs.add(new BaasDocument(coll).put(MARK, mark).put("n", (long) (from + i)));
+        }
+        return save(docs);
+    }
+
+    private List<BaasDocument> save(List<BaasDocument> docs) {
+        BaasResult<List<BaasResult<BaasDocument>>> res = BaasDocument.saveAllSync(docs, SaveMode.IGNORE_VERSION);
+        assertTrue(res.isSuccess());
+        for (BaasResult<BaasDocument> r : res.value()) {
+            assertTrue(r.toString(), r.isSuccess());
+        }
+        return docs;
+    }
+
+    private List<BaasDocument> sync() {
+        BaasResult<List<BaasDocument>> res = BaasDocument.sync(coll, MARK, RequestOptions.DEFAULT,
+                BaasHandler.NOOP).await();
+        assertTrue(res.toString(), res.isSuccess());
+        return res.value();
+    }
+
+    private static Set<String> ids(List<BaasDocument> docs) {
+        Set<String> ids = new HashSet<String>();
+        for (BaasDocument doc : docs) {
+            ids.add(doc.getId());
+        }
+        return ids;
+    }
+}
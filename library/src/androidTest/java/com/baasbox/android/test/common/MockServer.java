@@ -0,0 +1,568 @@
+/*
+ * Copyright (C) 2014.
+ *
+ * BaasBox - info@baasbox.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.test.common;
+
+import com.baasbox.android.json.JsonArray;
+import com.baasbox.android.json.JsonException;
+import com.baasbox.android.json.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In process stand in for a BaasBox server, implementing the endpoints used by the sdk
+ * (login, user, users, followers, document, file, link, push/message) with configurable
+ * latency, error rate and payload sizes.
+ *
+ * Connections are kept alive as requested by the client, every connection is served
+ * by its own thread.
+ *
+ * <pre>
+ *     MockServer server = new MockServer().setLatency(20).start();
+ *     BaasBox.builder(context).setApiDomain("127.0.0.1").setPort(server.getPort()).init();
+ * </pre>
+ */
+public final class MockServer {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String DATE = "2014-01-01T00:00:00.000+0000";
+    private static final int MAX_LINE = 8192;
+
+    private final ConcurrentMap<String, JsonObject> documents = new ConcurrentHashMap<String, JsonObject>();
+    private final ConcurrentMap<String, JsonObject> files = new ConcurrentHashMap<String, JsonObject>();
+    private final ConcurrentMap<String, JsonObject> links = new ConcurrentHashMap<String, JsonObject>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger rids = new AtomicInteger();
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile int payloadSize = 10;
+    private volatile int fileSize = 1024;
+
+    private ServerSocket socket;
+    private ExecutorService executor;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public MockServer() {
+    }
+
+// --------------------- GETTER / SETTER METHODS ---------------------
+
+    /**
+     * Delay added before each response is written
+     */
+    public MockServer setLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Fraction of the requests, between 0 and 1, answered with a 503
+     */
+    public MockServer setErrorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    /**
+     * Number of elements returned by the endpoints that list
+     * documents, users, files and links
+     */
+    public MockServer setPayloadSize(int elements) {
+        this.payloadSize = elements;
+        return this;
+    }
+
+    /**
+     * Size in bytes of the content of the files streamed back
+     */
+    public MockServer setFileSize(int bytes) {
+        this.fileSize = bytes;
+        return this;
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return the number of requests served
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of connections accepted, lower than the
+     * number of requests when connections are reused
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    public MockServer start() throws IOException {
+        socket = new ServerSocket(0, 128, InetAddress.getByName("127.0.0.1"));
+        executor = Executors.newCachedThreadPool();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        });
+        return this;
+    }
+
+    public void shutdown() throws IOException {
+        socket.close();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!socket.isClosed()) {
+            final Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            connections.incrementAndGet();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    serve(client);
+                }
+            });
+        }
+    }
+
+    private void serve(Socket client) {
+        try {
+            client.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = client.getOutputStream();
+            boolean keepAlive = true;
+            while (keepAlive) {
+                Request request = Request.read(in);
+                if (request == null) break;
+                requests.incrementAndGet();
+                keepAlive = request.keepAlive();
+                Response response = dispatch(request);
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+                response.write(out, keepAlive);
+            }
+        } catch (SocketException e) {
+            // client went away
+        } catch (IOException e) {
+            // malformed request or client went away
+        } catch (InterruptedException e) {
+            // server shutdown
+        } finally {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+
+    private Response dispatch(Request req) {
+        if (errorRate > 0 && new Random().nextDouble() < errorRate) {
+            return error(503, "mock server failure");
+        }
+        String[] path = req.path;
+        String root = path.length == 0 ? "" : path[0];
+        try {
+            if ("login".equals(root) || "user".equals(root) && path.length == 1 || "me".equals(root)) {
+                return ok(user(req.form.containsKey("username") ? req.form.get("username") : "user", true));
+            } else if ("logout".equals(root) || "push".equals(root)) {
+                return ok(null);
+            } else if ("user".equals(root) || "follow".equals(root)) {
+                return "DELETE".equals(req.method) ? ok(null) : ok(user(path[1], false));
+            } else if ("users".equals(root) || "followers".equals(root) || "following".equals(root)) {
+                JsonArray users = new JsonArray();
+                for (int i = 0; i < payloadSize; i++) {
+                    users.add(user("user" + i, false));
+                }
+                return ok(users);
+            } else if ("document".equals(root)) {
+                return document(req);
+            } else if ("file".equals(root)) {
+                return file(req);
+            } else if ("link".equals(root)) {
+                return link(req);
+            }
+        } catch (JsonException e) {
+            return error(400, "malformed body");
+        }
+        return error(404, "resource not found: " + req.target);
+    }
+
+    private Response document(Request req) {
+        String[] path = req.path;
+        if (path.length < 2) return error(404, "missing collection");
+        String collection = path[1];
+        if (path.length == 2) {
+            if ("POST".equals(req.method)) {
+                JsonObject doc = req.json();
+                doc.put("@class", collection)
+                   .put("id", UUID.randomUUID().toString())
+                   .put("@rid", "#" + rids.incrementAndGet())
+                   .put("@version", 1L)
+                   .put("_author", "user")
+                   .put("_creation_date", DATE);
+                documents.put(collection + '/' + doc.getString("id"), doc);
+                return ok(doc);
+            } else if ("true".equals(req.query.get("count"))) {
+                return ok(new JsonArray().add(new JsonObject().put("count", (long) payloadSize)));
+            } else {
+                JsonArray docs = new JsonArray();
+                for (int i = 0; i < payloadSize; i++) {
+                    docs.add(generated(collection, "doc" + i));
+                }
+                return ok(docs);
+            }
+        }
+        String key = collection + '/' + path[2];
+        JsonObject stored = documents.get(key);
+        if ("GET".equals(req.method)) {
+            return ok(stored == null ? generated(collection, path[2]) : stored);
+        } else if ("PUT".equals(req.method)) {
+            JsonObject doc = req.json();
+            long version = stored == null ? 1 : stored.getLong("@version", 1);
+            doc.put("@class", collection)
+               .put("id", path[2])
+               .put("@rid", stored == null ? "#" + rids.incrementAndGet() : stored.getString("@rid"))
+               .put("@version", version + 1)
+               .put("_author", "user")
+               .put("_creation_date", DATE);
+            documents.put(key, doc);
+            return ok(doc);
+        } else if ("DELETE".equals(req.method)) {
+            documents.remove(key);
+            return ok(null);
+        }
+        return error(405, "method not allowed");
+    }
+
+    private Response file(Request req) {
+        String[] path = req.path;
+        if ("POST".equals(req.method)) {
+            JsonObject details = fileDetails(UUID.randomUUID().toString());
+            files.put(details.getString("id"), details);
+            return ok(details);
+        } else if ("DELETE".equals(req.method)) {
+            if (path.length > 1) files.remove(path[1]);
+            return ok(null);
+        } else if (path.length > 1 && "details".equals(path[1])) {
+            if (path.length > 2) {
+                JsonObject details = files.get(path[2]);
+                return ok(details == null ? fileDetails(path[2]) : details);
+            }
+            JsonArray all = new JsonArray();
+            for (int i = 0; i < payloadSize; i++) {
+                all.add(fileDetails("file" + i));
+            }
+            return ok(all);
+        } else if (path.length > 1) {
+            byte[] content = new byte[fileSize];
+            new Random(path[path.length - 1].hashCode()).nextBytes(content);
+            return new Response(200, "application/octet-stream", content);
+        }
+        return error(404, "missing file id");
+    }
+
+    private Response link(Request req) {
+        String[] path = req.path;
+        if ("POST".equals(req.method) && path.length == 4) {
+            JsonObject link = new JsonObject()
+                    .put("id", UUID.randomUUID().toString())
+                    .put("label", path[2])
+                    .put("@version", 1L)
+                    .put("_author", "user")
+                    .put("_creation_date", DATE)
+                    .put("in", generated("source", path[1]))
+                    .put("out", generated("destination", path[3]));
+            links.put(link.getString("id"), link);
+            return ok(link);
+        } else if ("DELETE".equals(req.method) && path.length == 2) {
+            links.remove(path[1]);
+            return ok(null);
+        } else if (path.length == 2) {
+            JsonObject link = links.get(path[1]);
+            return link == null ? error(404, "link not found") : ok(link);
+        }
+        JsonArray all = new JsonArray();
+        for (JsonObject link : links.values()) {
+            all.add(link);
+        }
+        return ok(all);
+    }
+
+    private JsonObject user(String name, boolean withSession) {
+        JsonObject user = new JsonObject()
+                .put("user", new JsonObject()
+                        .put("name", name)
+                        .put("status", "ACTIVE")
+                        .put("roles", new JsonArray().add(new JsonObject().put("name", "registered"))))
+                .put("signUpDate", DATE)
+                .put("visibleByTheUser", new JsonObject())
+                .put("visibleByFriends", new JsonObject())
+                .put("visibleByRegisteredUsers", new JsonObject())
+                .put("visibleByAnonymousUsers", new JsonObject());
+        if (withSession) {
+            user.put("X-BB-SESSION", UUID.randomUUID().toString());
+        }
+        return user;
+    }
+
+    private JsonObject generated(String collection, String id) {
+        return new JsonObject()
+                .put("@class", collection)
+                .put("id", id)
+                .put("@rid", "#" + Math.abs(id.hashCode()))
+                .put("@version", 1L)
+                .put("_author", "user")
+                .put("_creation_date", DATE)
+                .put("title", "document " + id)
+                .put("score", (long) id.length());
+    }
+
+    private JsonObject fileDetails(String id) {
+        return new JsonObject()
+                .put("id", id)
+                .put("fileName", id + ".bin")
+                .put("contentType", "application/octet-stream")
+                .put("contentLength", (long) fileSize)
+                .put("@version", 1L)
+                .put("_author", "user")
+                .put("_creation_date", DATE)
+                .put("attachedData", new JsonObject())
+                .put("metadata", new JsonObject());
+    }
+
+    private static Response ok(Object data) {
+        JsonObject body = new JsonObject()
+                .put("result", "ok")
+                .put("http_code", 200L);
+        if (data == null) {
+            body.putNull("data");
+        } else if (data instanceof JsonArray) {
+            body.put("data", (JsonArray) data);
+        } else {
+            body.put("data", (JsonObject) data);
+        }
+        return Response.json(200, body);
+    }
+
+    private static Response error(int status, String message) {
+        JsonObject body = new JsonObject()
+                .put("result", "error")
+                .put("http_code", (long) status)
+                .put("message", message)
+                .put("bb_code", "");
+        return Response.json(status, body);
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class Request {
+        final String method;
+        final String target;
+        final String[] path;
+        final Map<String, String> query;
+        final Map<String, String> headers;
+        final Map<String, String> form;
+        final byte[] body;
+
+        private Request(String method, String target, Map<String, String> headers, byte[] body) throws IOException {
+            this.method = method;
+            this.target = target;
+            this.headers = headers;
+            this.body = body;
+            int q = target.indexOf('?');
+            String p = q < 0 ? target : target.substring(0, q);
+            while (p.startsWith("/")) p = p.substring(1);
+            this.path = p.length() == 0 ? new String[0] : p.split("/");
+            this.query = q < 0 ? new HashMap<String, String>() : params(target.substring(q + 1));
+            String type = headers.get("content-type");
+            this.form = type != null && type.startsWith("application/x-www-form-urlencoded")
+                    ? params(new String(body, "UTF-8"))
+                    : new HashMap<String, String>();
+        }
+
+        static Request read(InputStream in) throws IOException {
+            String line = readLine(in);
+            while (line != null && line.length() == 0) {
+                line = readLine(in);
+            }
+            if (line == null) return null;
+            String[] parts = line.split(" ");
+            if (parts.length < 3) throw new IOException("malformed request line: " + line);
+            Map<String, String> headers = new HashMap<String, String>();
+            for (String h = readLine(in); h != null && h.length() > 0; h = readLine(in)) {
+                int c = h.indexOf(':');
+                if (c > 0) {
+                    headers.put(h.substring(0, c).trim().toLowerCase(Locale.US), h.substring(c + 1).trim());
+                }
+            }
+            byte[] body;
+            if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+                body = readChunked(in);
+            } else if (headers.containsKey("content-length")) {
+                body = readFully(in, Integer.parseInt(headers.get("content-length")));
+            } else {
+                body = new byte[0];
+            }
+            return new Request(parts[0], parts[1], headers, body);
+        }
+
+        boolean keepAlive() {
+            return !"close".equalsIgnoreCase(headers.get("connection"));
+        }
+
+        JsonObject json() {
+            return body.length == 0 ? new JsonObject() : JsonObject.decode(body);
+        }
+
+        private static Map<String, String> params(String encoded) throws IOException {
+            Map<String, String> params = new HashMap<String, String>();
+            for (String pair : encoded.split("&")) {
+                int e = pair.indexOf('=');
+                if (e > 0) {
+                    params.put(URLDecoder.decode(pair.substring(0, e), "UTF-8"),
+                               URLDecoder.decode(pair.substring(e + 1), "UTF-8"));
+                }
+            }
+            return params;
+        }
+
+        private static byte[] readChunked(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (; ; ) {
+                String size = readLine(in);
+                if (size == null) throw new IOException("truncated chunked body");
+                int semi = size.indexOf(';');
+                int len = Integer.parseInt((semi < 0 ? size : size.substring(0, semi)).trim(), 16);
+                if (len == 0) {
+                    // trailers
+                    for (String t = readLine(in); t != null && t.length() > 0; t = readLine(in)) ;
+                    return out.toByteArray();
+                }
+                out.write(readFully(in, len));
+                readLine(in);
+            }
+        }
+
+        private static byte[] readFully(InputStream in, int len) throws IOException {
+            byte[] buf = new byte[len];
+            int off = 0;
+            while (off < len) {
+                int r = in.read(buf, off, len - off);
+                if (r < 0) throw new IOException("truncated body");
+                off += r;
+            }
+            return buf;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    int len = sb.length();
+                    if (len > 0 && sb.charAt(len - 1) == '\r') sb.setLength(len - 1);
+                    return sb.toString();
+                }
+                if (sb.length() == MAX_LINE) throw new IOException("line too long");
+                sb.append((char) c);
+            }
+            return sb.length() == 0 ? null : sb.toString();
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        Response(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response json(int status, JsonObject body) {
+            try {
+                return new Response(status, "application/json; charset=utf-8", body.encode().getBytes("UTF-8"));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        void write(OutputStream out, boolean keepAlive) throws IOException {
+            String head = "HTTP/1.1 " + status + " " + reason(status) + "\r\n" +
+                    "Content-Type: " + contentType + "\r\n" +
+                    "Content-Length: " + body.length + "\r\n" +
+                    "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n" +
+                    "\r\n";
+            out.write(head.getBytes("US-ASCII"));
+            out.write(body);
+            out.flush();
+        }
+
+        private static String reason(int status) {
+            switch (status) {
+                case 200: return "OK";
+                case 400: return "Bad Request";
+                case 404: return "Not Found";
+                case 405: return "Method Not Allowed";
+                case 503: return "Service Unavailable";
+                default: return "Error";
+            }
+        }
+    }
+}
@@ -48,10 +48,10 @@ abstract class AsyncStream<R> extends NetworkTask<R> {
         try {
             byte[] bytes = box.mCache.get(cacheKey());
             if (bytes == null) {
-                Logger.info("GOT FROM CACHE MISS");
+                Logger.debug("cache miss %s", cacheKey());
                 return null;
             } else {
-                Logger.info("GOT FROM CACHE HIT");
+                Logger.debug("cache hit %s", cacheKey());
                 handle = true;
                 dataStream.startData(streamId(), bytes.length, null);
                 dataStream.onData(bytes,bytes.length);
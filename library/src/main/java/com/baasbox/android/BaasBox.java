@@ -19,14 +19,21 @@ import android.content.Context;
 import android.os.Build;
 import android.util.Pair;
 import android.util.Patterns;
+import com.baasbox.android.impl.BlockingCallDetector;
 import com.baasbox.android.impl.Dispatcher;
 import com.baasbox.android.impl.ImmediateDispatcher;
+import com.baasbox.android.impl.Logger;
 import com.baasbox.android.impl.Task;
 import com.baasbox.android.json.JsonArray;
 import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.StringPool;
+import com.baasbox.android.net.HttpResponse;
 import com.baasbox.android.net.RestClient;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -89,6 +96,9 @@ public class BaasBox {
     public final Config config;
 
     final Cache mCache;
+    final LocalStore mLocalStore;
+    final Outbox mOutbox;
+    final QueryCache mQueryCache;
 
     final RequestFactory requestFactory;
     final RestClient restClient;
@@ -113,8 +123,16 @@ public class BaasBox {
         this.restClient.init(context,config);
         this.requestFactory = new RequestFactory(this.config, store);
         this.mCache = new Cache(context);
-        this.syncDispatcher = new ImmediateDispatcher();
-        this.asyncDispatcher = new Dispatcher(this);
+        this.mLocalStore = config.localStoreEnabled ? new LocalStore(context) : null;
+        this.mOutbox = new Outbox(this, context);
+        this.mQueryCache = config.queryCacheSize > 0 ? new QueryCache(config.queryCacheSize, config.queryCacheTtl) : null;
+        StringPool.setSharedCapacity(config.jsonNamePoolSize);
+        Logger.setLevel(config.logLevel);
+        Logger.setSink(config.logSink);
+        BlockingCallDetector blockingCalls = new BlockingCallDetector(config.mainThreadPolicy, config.blockingCallListener);
+        this.syncDispatcher = new ImmediateDispatcher(config.metricsListener, blockingCalls);
+        this.asyncDispatcher = new Dispatcher(config.workerThreads, config.exceptionHandler,
+                                              config.metricsListener, blockingCalls);
         this.messagingService=new BaasCloudMessagingService(this);
         this.mAdmin = new BaasAdmin(this);
         this.mRest = new RestImpl(this);
@@ -195,6 +213,10 @@ public class BaasBox {
         return new RequestToken(asyncDispatcher.post(task));
     }
 
+    int workerCount() {
+        return asyncDispatcher.workerCount();
+    }
+
 
     <Resp> BaasResult<Resp> submitSync(Task<Resp> task) {
         return syncDispatcher.execute(task);
@@ -210,6 +232,46 @@ public class BaasBox {
         return asyncDispatcher.await(requestToken.requestId);
     }
 
+    /**
+     * Returns a snapshot of the statistics of the disk cache
+     * used for files and assets.
+     *
+     * @return the current {@link CacheStats}
+     */
+    public CacheStats cacheStats() {
+        return mCache.stats();
+    }
+
+    /**
+     * Returns the keys of the disk cache entries starting with <code>prefix</code>
+     *
+     * @param prefix the prefix to match, null matches every entry
+     * @return the list of matching keys
+     */
+    public List<String> cachedKeys(String prefix) {
+        return mCache.keys(prefix);
+    }
+
+    /**
+     * Returns the number of bytes used by the disk cache entries starting with <code>prefix</code>
+     *
+     * @param prefix the prefix to match, null matches every entry
+     * @return the size in bytes
+     */
+    public long cachedSize(String prefix) {
+        return mCache.size(prefix);
+    }
+
+    /**
+     * Removes from the disk cache the entries starting with <code>prefix</code>
+     *
+     * @param prefix the prefix to match, null matches every entry
+     * @return the number of removed entries
+     */
+    public int purgeCache(String prefix) {
+        return mCache.purge(prefix);
+    }
+
     boolean cancel(RequestToken token) {
         return asyncDispatcher.cancel(token.requestId, false);
     }
@@ -353,6 +415,20 @@ public class BaasBox {
         private RestClient mRestClient = null;
         private boolean mTokenExpires = false;
         private String mSenderIds;
+        private boolean mLocalStore = false;
+        private OutboxListener mOutboxListener = OutboxListener.NOOP;
+        private long mQueryCacheSize = 0;
+        private long mQueryCacheTtl = 0;
+        private boolean mLazyJson = false;
+        private int mJsonNamePoolSize = StringPool.DEFAULT_CAPACITY;
+        private MetricsListener mMetricsListener = null;
+        private int mLogLevel = 0;
+        private LogSink mLogSink = null;
+        private MainThreadPolicy mMainThreadPolicy = MainThreadPolicy.ALLOW;
+        private BlockingCallListener mBlockingCallListener = null;
+        private int mMaxIdleConnections = -1;
+        private long mKeepAliveDuration = -1;
+        private HttpResponse.HttpVersion[] mHttpProtocols = null;
 
         private Set<Pair<Plugin<?>,Plugin.Options>> plugins = new HashSet<Pair<Plugin<?>, Plugin.Options>>();
 
@@ -503,6 +579,185 @@ public class BaasBox {
             return this;
         }
 
+        /**
+         * Enables a local replica of the documents fetched from the server.
+         * Requests flagged with {@link RequestOptions#LOCAL_FIRST} are served
+         * from the replica when possible, defaults to false.
+         *
+         * @param enabled true to mirror documents locally
+         * @return this builder
+         */
+        public Builder setLocalStoreEnabled(boolean enabled){
+            mLocalStore = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified when writes queued with
+         * {@link BaasDocument#saveLater(SaveMode)} and {@link BaasDocument#deleteLater()}
+         * are delivered or rejected by the server.
+         *
+         * @param listener the listener, null to ignore outcomes
+         * @return this builder
+         */
+        public Builder setOutboxListener(OutboxListener listener){
+            mOutboxListener = listener==null?OutboxListener.NOOP:listener;
+            return this;
+        }
+
+        /**
+         * Enables an in memory cache of collection query results, disabled by default.
+         * Identical queries issued within <code>ttlMillis</code> are answered without
+         * contacting the server; saves and deletes made through this client
+         * invalidate the results of their collection.
+         *
+         * @param maxBytes the approximate memory budget of the cache, 0 disables it
+         * @param ttlMillis how long a result is considered fresh
+         * @return this builder
+         */
+        public Builder setQueryCache(long maxBytes, long ttlMillis){
+            mQueryCacheSize = maxBytes < 0 ? 0 : maxBytes;
+            mQueryCacheTtl = ttlMillis < 0 ? 0 : ttlMillis;
+            return this;
+        }
+
+        /**
+         * Enables lazy decoding of server responses, disabled by default.
+         * The raw response is retained and fields are decoded only when first read,
+         * which speeds up reading a few fields out of large documents.
+         * Objects decoded this way must not be read concurrently from multiple threads.
+         * Has effect only when the http charset is UTF-8.
+         *
+         * @param lazy true to decode responses lazily
+         * @return this builder
+         */
+        public Builder setLazyJsonDecoding(boolean lazy){
+            mLazyJson = lazy;
+            return this;
+        }
+
+        /**
+         * Sets how many distinct json field names are pooled and shared
+         * among all the decoded responses, defaults to {@link StringPool#DEFAULT_CAPACITY}.
+         * Pool usage is reported by {@link StringPool#shared()}.
+         *
+         * @param size the maximum number of pooled names, 0 disables pooling
+         * @return this builder
+         */
+        public Builder setJsonNamePoolSize(int size){
+            mJsonNamePoolSize = size < 0 ? 0 : size;
+            return this;
+        }
+
+        /**
+         * Sets a listener that receives the timings of every request:
+         * time spent queued, building the request, on the network, parsing
+         * and delivering the callback, together with sizes, status and retries.
+         * Requests are not timed when no listener is set, the default.
+         *
+         * @param listener the listener, null to disable timing
+         * @return this builder
+         */
+        public Builder setMetricsListener(MetricsListener listener){
+            mMetricsListener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the minimum level of the messages logged by the sdk,
+         * by default the level configured for the BAASBOX tag on the device is used.
+         * Messages below the level are discarded without being formatted.
+         *
+         * @param level one of the levels of {@link LogSink}, {@link LogSink#NONE} to disable logging,
+         *              0 to use the level of the device
+         * @return this builder
+         */
+        public Builder setLogLevel(int level){
+            mLogLevel = level;
+            return this;
+        }
+
+        /**
+         * Sets where the messages of the sdk are logged, logcat by default.
+         *
+         * @param sink the sink receiving the messages, null to use logcat
+         * @return this builder
+         */
+        public Builder setLogSink(LogSink sink){
+            mLogSink = sink;
+            return this;
+        }
+
+        /**
+         * Sets how synchronous requests and waits on asynchronous requests,
+         * such as {@link RequestToken#await()}, issued on the main thread are handled.
+         * Meant for debug builds: {@link MainThreadPolicy#ALLOW}, the default, does no checks.
+         *
+         * @param policy the policy, null to allow blocking calls
+         * @return this builder
+         * @see #setBlockingCallListener(BlockingCallListener)
+         */
+        public Builder setMainThreadPolicy(MainThreadPolicy policy){
+            mMainThreadPolicy = policy==null?MainThreadPolicy.ALLOW:policy;
+            return this;
+        }
+
+        /**
+         * Sets the listener that receives the blocking calls detected on the main thread
+         * with the {@link MainThreadPolicy#REPORT} policy, instead of logging them.
+         *
+         * @param listener the listener, null to log the calls
+         * @return this builder
+         */
+        public Builder setBlockingCallListener(BlockingCallListener listener){
+            mBlockingCallListener = listener;
+            return this;
+        }
+
+        /**
+         * Sets how many idle connections are kept alive for reuse and for how long.
+         * Applies to http clients with their own connection pool, such as {@link com.baasbox.android.net.OkClient},
+         * by default the pool of the client is left as is.
+         *
+         * @param maxIdleConnections the maximum number of idle connections
+         * @param keepAliveMillis how long an idle connection is kept in milliseconds
+         * @return this builder
+         */
+        public Builder setConnectionPool(int maxIdleConnections, long keepAliveMillis){
+            if (maxIdleConnections < 0) throw new IllegalArgumentException("maxIdleConnections cannot be negative");
+            if (keepAliveMillis < 0) throw new IllegalArgumentException("keepAliveMillis cannot be negative");
+            mMaxIdleConnections = maxIdleConnections;
+            mKeepAliveDuration = keepAliveMillis;
+            return this;
+        }
+
+        /**
+         * Sets the protocols the http client may negotiate with the server, in order of preference.
+         * HTTP/2 and SPDY multiplex concurrent requests on a single connection,
+         * they require https and a client that supports them, such as {@link com.baasbox.android.net.OkClient}.
+         * By default the protocols of the client are used.
+         *
+         * @param protocols the protocols, must include {@link HttpResponse.HttpVersion#HTTP_1_1},
+         *                  none to use the defaults of the client
+         * @return this builder
+         */
+        public Builder setHttpProtocols(HttpResponse.HttpVersion... protocols){
+            if (protocols == null || protocols.length == 0) {
+                mHttpProtocols = null;
+                return this;
+            }
+            boolean http11 = false;
+            for (HttpResponse.HttpVersion protocol : protocols) {
+                if (protocol == null || protocol == HttpResponse.HttpVersion.HTTP_1_0) {
+                    throw new IllegalArgumentException("invalid protocol: " + protocol);
+                }
+                http11 |= protocol == HttpResponse.HttpVersion.HTTP_1_1;
+            }
+            if (!http11) throw new IllegalArgumentException("protocols must include http/1.1");
+            mHttpProtocols = protocols.clone();
+            return this;
+        }
+
         private Config buildConfig(){
             return new Config(mExceptionHandler,mUseHttps,
                               mHttpCharset,mPort,mHttpConnectionTimeout,
@@ -510,7 +765,21 @@ public class BaasBox {
                               mApiBasepath,mAppCode,mAuthType,mTokenExpires,mWorkerThreads,
                               mKeyStoreRes,
                               mKeyStorePass,
-                              mSenderIds);
+                              mSenderIds,
+                              mLocalStore,
+                              mOutboxListener,
+                              mQueryCacheSize,
+                              mQueryCacheTtl,
+                              mLazyJson,
+                              mJsonNamePoolSize,
+                              mMetricsListener,
+                              mLogLevel,
+                              mLogSink,
+                              mMainThreadPolicy,
+                              mBlockingCallListener,
+                              mMaxIdleConnections,
+                              mKeepAliveDuration,
+                              mHttpProtocols);
         }
 
         /**
@@ -524,6 +793,7 @@ public class BaasBox {
                         BaasBox box = new BaasBox(mContext, buildConfig(),plugins, mRestClient);
                         box.asyncDispatcher.start();
                         sDefaultClient = box;
+                        box.mOutbox.resume();
                     }
                 }
             }
@@ -620,6 +890,76 @@ public class BaasBox {
          */
         public final boolean sessionTokenExpires;
 
+        /**
+         * True if documents are mirrored in a local store
+         */
+        public final boolean localStoreEnabled;
+
+        /**
+         * Listener of the writes delivered from the outbox
+         */
+        public final OutboxListener outboxListener;
+
+        /**
+         * Memory budget in bytes of the query result cache, 0 if disabled
+         */
+        public final long queryCacheSize;
+
+        /**
+         * Time to live in milliseconds of the cached query results
+         */
+        public final long queryCacheTtl;
+
+        /**
+         * True if responses are decoded lazily
+         */
+        public final boolean lazyJson;
+
+        /**
+         * Maximum number of json field names shared among responses
+         */
+        public final int jsonNamePoolSize;
+
+        /**
+         * Listener of the request timings, null if requests are not timed
+         */
+        public final MetricsListener metricsListener;
+
+        /**
+         * Minimum level of the logged messages, 0 if the level of the device is used
+         */
+        public final int logLevel;
+
+        /**
+         * Destination of the logged messages, null if logcat is used
+         */
+        public final LogSink logSink;
+
+        /**
+         * What happens on blocking calls made on the main thread
+         */
+        public final MainThreadPolicy mainThreadPolicy;
+
+        /**
+         * Listener of the blocking calls made on the main thread, null if they are logged
+         */
+        public final BlockingCallListener blockingCallListener;
+
+        /**
+         * Maximum number of idle connections kept alive, -1 if the default of the client is used
+         */
+        public final int maxIdleConnections;
+
+        /**
+         * Time in milliseconds idle connections are kept alive, -1 if the default of the client is used
+         */
+        public final long keepAliveDuration;
+
+        /**
+         * Protocols the client may negotiate in order of preference, null if the defaults of the client are used
+         */
+        public final List<HttpResponse.HttpVersion> httpProtocols;
+
         /**
          * GCM SenderIds to use for notifications
          */
@@ -634,7 +974,12 @@ public class BaasBox {
         Config(ExceptionHandler exceptionHandler, boolean useHttps, String httpCharset, int httpPort, int httpConnectionTimeout,
                int httpSocketTimeout, String apiDomain, String apiBasepath, String appCode,
                AuthType authenticationType,boolean sessionTokenExpires, int workerThreads,
-               int keystoreRes,String keystorepass,String senderIds) {
+               int keystoreRes,String keystorepass,String senderIds,
+               boolean localStoreEnabled, OutboxListener outboxListener,
+               long queryCacheSize, long queryCacheTtl, boolean lazyJson, int jsonNamePoolSize,
+               MetricsListener metricsListener, int logLevel, LogSink logSink,
+               MainThreadPolicy mainThreadPolicy, BlockingCallListener blockingCallListener,
+               int maxIdleConnections, long keepAliveDuration, HttpResponse.HttpVersion[] httpProtocols) {
             this.exceptionHandler = exceptionHandler;
             this.useHttps = useHttps;
             this.httpCharset = httpCharset;
@@ -651,6 +996,21 @@ public class BaasBox {
             this.sessionTokenExpires=sessionTokenExpires;
             this.senderId = senderIds;
             this.senderIds = new String[]{senderId};
+            this.localStoreEnabled = localStoreEnabled;
+            this.outboxListener = outboxListener;
+            this.queryCacheSize = queryCacheSize;
+            this.queryCacheTtl = queryCacheTtl;
+            this.lazyJson = lazyJson;
+            this.jsonNamePoolSize = jsonNamePoolSize;
+            this.metricsListener = metricsListener;
+            this.logLevel = logLevel;
+            this.logSink = logSink;
+            this.mainThreadPolicy = mainThreadPolicy;
+            this.blockingCallListener = blockingCallListener;
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveDuration = keepAliveDuration;
+            this.httpProtocols = httpProtocols == null ? null
+                    : Collections.unmodifiableList(Arrays.asList(httpProtocols));
         }
     }
 
@@ -17,7 +17,6 @@ package com.baasbox.android;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import com.baasbox.android.impl.Logger;
 import com.baasbox.android.json.JsonArray;
 import com.baasbox.android.json.JsonObject;
 import com.baasbox.android.net.HttpRequest;
@@ -85,6 +84,13 @@ class BaasCredentialManager {
             current = null;
             loaded = false;
             erase();
+            if (box.mLocalStore != null) {
+                box.mLocalStore.clear();
+            }
+            box.mOutbox.clear();
+            if (box.mQueryCache != null) {
+                box.mQueryCache.clear();
+            }
         }
     }
 
@@ -107,7 +113,6 @@ class BaasCredentialManager {
             HttpResponse resp = box.restClient.execute(req);
             if (resp.getStatusCode() / 100 == 2) {
                 JsonObject sessionObject = NetworkTask.parseJson(resp, box);
-                Logger.debug("!!!! %s !!!!!", sessionObject.toString());
                 String session = sessionObject.getObject("data").getString("X-BB-SESSION");
                 if (session != null) {
                     c.setToken(session);
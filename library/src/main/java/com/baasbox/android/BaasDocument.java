@@ -17,19 +17,25 @@ package com.baasbox.android;
 
 
 import android.content.ContentValues;
+import android.net.Uri;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.text.TextUtils;
 
+import com.baasbox.android.impl.Constants;
 import com.baasbox.android.impl.Logger;
+import com.baasbox.android.impl.Task;
 import com.baasbox.android.impl.Util;
 import com.baasbox.android.json.JsonArray;
 import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.JsonSelector;
 import com.baasbox.android.json.JsonStructure;
 import com.baasbox.android.net.HttpRequest;
 import com.baasbox.android.net.HttpResponse;
 
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Represents a BaasBox document.
@@ -68,6 +74,9 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         }
     };
 
+    // metadata kept when the fields of fetched documents are projected
+    private static final String[] SYSTEM_FIELDS = {"@class", "id", "_author", "_creation_date", "@version", "@rid"};
+
     private final JsonWrapper data;
     private final String collection;
     private String id;
@@ -76,6 +85,9 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
     private String rid;
     private long version;
     private BaasACL acl;
+    private String outboxRef;
+    // fetched with a projection, the fields outside of it are missing
+    private boolean projected;
 
 // --------------------------- CONSTRUCTORS ---------------------------
 
@@ -161,7 +173,8 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         this.author = Util.readOptString(source);
         this.creation_date = Util.readOptString(source);
         this.rid= Util.readOptString(source);
-        this.data = source.readParcelable(JsonWrapper.class.getClassLoader());
+        this.data = new JsonWrapper(source);
+        this.projected = source.readByte() == 1;
     }
 
     /**
@@ -235,7 +248,9 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
 
     /**
      * Asynchronously retrieves the list of documents readable to the user that match <code>filter</code>
-     * in <code>collection</code>
+     * in <code>collection</code>.
+     * If <code>filter</code> has a projection the documents hold only the projected fields,
+     * see {@link #isProjected()}.
      *
      * @param collection the collection to retrieve not <code>null</code>
      * @param filter     a filter to apply to the request
@@ -262,6 +277,46 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         return box.submitAsync(f);
     }
 
+    /**
+     * Asynchronously synchronizes the local store with the documents created in <code>collection</code>
+     * since the last sync, using their creation date as high-water mark.
+     * See {@link #sync(String, String, int, BaasHandler)}
+     *
+     * @param collection the collection to sync not <code>null</code>
+     * @param handler    a callback to be invoked with the documents that changed
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken sync(String collection, BaasHandler<List<BaasDocument>> handler) {
+        return sync(collection, "_creation_date", RequestOptions.DEFAULT, handler);
+    }
+
+    /**
+     * Asynchronously synchronizes the local store with the documents of <code>collection</code>
+     * whose <code>markerField</code> is at least the highest value seen during the previous sync.
+     * Only the changed documents, and those sharing the previous mark, are transferred, page by page;
+     * they are written to the local store and delivered to the handler.
+     * The marker should be a field the server updates on every write, documents without it
+     * are not synced and deletions are not detected. Its value is compared with its json type,
+     * so numeric markers are ordered as numbers.
+     * Requires the local store to be enabled through {@link BaasBox.Builder#setLocalStoreEnabled(boolean)}.
+     *
+     * @param collection  the collection to sync not <code>null</code>
+     * @param markerField the field used as high-water mark not <code>null</code>,
+     *                    a field name or a dotted path to a nested field
+     * @param flags       {@link RequestOptions}
+     * @param handler     a callback to be invoked with the documents that changed
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken sync(String collection, String markerField, int flags, BaasHandler<List<BaasDocument>> handler) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (collection == null) throw new IllegalArgumentException("collection cannot be null");
+        if (markerField == null) throw new IllegalArgumentException("markerField cannot be null");
+        if (!Sync.isFieldPath(markerField)) throw new IllegalArgumentException("markerField must be a field name or a dotted path: " + markerField);
+        if (box.mLocalStore == null) throw new IllegalStateException("sync requires the local store to be enabled");
+        Sync sync = new Sync(box, collection, markerField, flags, handler);
+        return box.submitAsync(sync);
+    }
+
     public static BaasResult<List<BaasDocument>> fetchAllSync(String collection) {
         return fetchAllSync(collection, null);
     }
@@ -388,6 +443,20 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         return doFetch(collection, id, false, RequestOptions.DEFAULT, handler);
     }
 
+    /**
+     * Asynchronously fetches the document identified by <code>id</code> in <code>collection</code>
+     *
+     * @param collection the collection to retrieve the document from. Not <code>null</code>
+     * @param id         the id of the document to retrieve. Not <code>null</code>
+     * @param withAcl if true will fetch acl
+     * @param flags {@link RequestOptions}
+     * @param handler    a callback to be invoked with the result of the request
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken fetch(String collection, String id, boolean withAcl, int flags, BaasHandler<BaasDocument> handler) {
+        return doFetch(collection, id, withAcl, flags, handler);
+    }
+
     
     private static RequestToken doFetch(String collection, String id,boolean withAcl, int flags, BaasHandler<BaasDocument> handler) {
         if (collection == null) throw new IllegalArgumentException("collection cannot be null");
@@ -434,6 +503,53 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         return doc.refreshSync(withAcl);
     }
 
+    /**
+     * Asynchronously fetches the documents of <code>collection</code> with the given <code>ids</code>.
+     * See {@link #fetchByIds(String, List, int, BaasHandler)}
+     *
+     * @param collection the collection to retrieve the documents from. Not <code>null</code>
+     * @param ids        the ids of the documents to retrieve. Not <code>null</code>
+     * @param handler    a callback to be invoked with the result of each fetch
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken fetchByIds(String collection, List<String> ids, BaasHandler<List<BaasResult<BaasDocument>>> handler) {
+        return fetchByIds(collection, ids, RequestOptions.DEFAULT, handler);
+    }
+
+    /**
+     * Asynchronously fetches the documents of <code>collection</code> with the given <code>ids</code>.
+     * The ids are queried in chunks, each chunk with a single request, and the chunks are
+     * fetched in parallel. The handler receives one result for each id in the same order,
+     * ids that are not found yield a failure with status 404.
+     *
+     * @param collection the collection to retrieve the documents from. Not <code>null</code>
+     * @param ids        the ids of the documents to retrieve. Not <code>null</code>
+     * @param flags      {@link RequestOptions}
+     * @param handler    a callback to be invoked with the result of each fetch
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken fetchByIds(String collection, List<String> ids, int flags, BaasHandler<List<BaasResult<BaasDocument>>> handler) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (collection == null) throw new IllegalArgumentException("collection cannot be null");
+        if (ids == null) throw new IllegalArgumentException("ids cannot be null");
+        return box.submitAsync(new FetchByIds(box, collection, ids, flags, handler));
+    }
+
+    /**
+     * Synchronously fetches the documents of <code>collection</code> with the given <code>ids</code>.
+     * See {@link #fetchByIds(String, List, int, BaasHandler)}
+     *
+     * @param collection the collection to retrieve the documents from. Not <code>null</code>
+     * @param ids        the ids of the documents to retrieve. Not <code>null</code>
+     * @return the result of each fetch
+     */
+    public static BaasResult<List<BaasResult<BaasDocument>>> fetchByIdsSync(String collection, List<String> ids) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (collection == null) throw new IllegalArgumentException("collection cannot be null");
+        if (ids == null) throw new IllegalArgumentException("ids cannot be null");
+        return box.submitSync(new FetchByIds(box, collection, ids, RequestOptions.DEFAULT, null));
+    }
+
 
 
     /**
@@ -528,6 +644,52 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         return box.submitSync(delete);
     }
 
+    /**
+     * Asynchronously deletes the documents with the given <code>ids</code> from <code>collection</code>.
+     * See {@link #deleteAll(String, List, int, BaasHandler)}
+     *
+     * @param collection the collection of the documents
+     * @param ids        the ids of the documents
+     * @param handler    a callback to be invoked with the result of each deletion
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken deleteAll(String collection, List<String> ids, BaasHandler<List<BaasResult<Void>>> handler) {
+        return deleteAll(collection, ids, RequestOptions.DEFAULT, handler);
+    }
+
+    /**
+     * Asynchronously deletes the documents with the given <code>ids</code> from <code>collection</code>.
+     * The deletions run in parallel on the available workers and the handler
+     * receives one result for each id in the same order.
+     *
+     * @param collection the collection of the documents
+     * @param ids        the ids of the documents
+     * @param flags      {@link RequestOptions}
+     * @param handler    a callback to be invoked with the result of each deletion
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken deleteAll(String collection, List<String> ids, int flags, BaasHandler<List<BaasResult<Void>>> handler) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (collection == null) throw new IllegalArgumentException("collection cannot be null");
+        if (ids == null) throw new IllegalArgumentException("ids cannot be null");
+        return box.submitAsync(new DeleteAll(box, collection, ids, flags, handler));
+    }
+
+    /**
+     * Synchronously deletes the documents with the given <code>ids</code> from <code>collection</code>.
+     * See {@link #deleteAll(String, List, int, BaasHandler)}
+     *
+     * @param collection the collection of the documents
+     * @param ids        the ids of the documents
+     * @return the result of each deletion
+     */
+    public static BaasResult<List<BaasResult<Void>>> deleteAllSync(String collection, List<String> ids) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (collection == null) throw new IllegalArgumentException("collection cannot be null");
+        if (ids == null) throw new IllegalArgumentException("ids cannot be null");
+        return box.submitSync(new DeleteAll(box, collection, ids, RequestOptions.DEFAULT, null));
+    }
+
     /**
      * Asynchronously deletes this document on the serve 
      * @param handler a callback to be invoked with the result of the request
@@ -616,8 +778,7 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
     public RequestToken save(SaveMode mode,BaasACL acl, int flags, BaasHandler<BaasDocument> handler) {
         BaasBox box = BaasBox.getDefaultChecked();
         if (mode == null) throw new IllegalArgumentException("mode cannot be null");
-        Save save = new Save(box, mode,acl, this, flags, handler);
-        return box.submitAsync(save);
+        return box.submitAsync(saveTask(box, mode, acl, flags, handler));
     }
 
 
@@ -656,8 +817,99 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
     public BaasResult<BaasDocument> saveSync(SaveMode mode,BaasACL acl) {
         BaasBox box = BaasBox.getDefaultChecked();
         if (mode == null) throw new IllegalArgumentException("mode cannot be null");
-        Save save = new Save(box, mode,acl, this, RequestOptions.DEFAULT, null);
-        return box.submitSync(save);
+        return box.submitSync(saveTask(box, mode, acl, RequestOptions.DEFAULT, null));
+    }
+
+    private Task<BaasDocument> saveTask(BaasBox box, SaveMode mode, BaasACL acl, int flags, BaasHandler<BaasDocument> handler) {
+        if (projected && acl != null) {
+            throw new IllegalStateException("cannot set the acl of a projected document, refresh it first");
+        }
+        if ((mode == SaveMode.PARTIAL || projected) && acl == null) {
+            return new PartialSave(box, this, flags, handler);
+        }
+        return new Save(box, mode, acl, this, flags, handler);
+    }
+
+    /**
+     * Asynchronously saves the given <code>documents</code> ignoring their versions.
+     * See {@link #saveAll(List, SaveMode, int, BaasHandler)}
+     *
+     * @param documents the documents to save. Not <code>null</code>
+     * @param handler   a callback to be invoked with the result of each save
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken saveAll(List<BaasDocument> documents, BaasHandler<List<BaasResult<BaasDocument>>> handler) {
+        return saveAll(documents, SaveMode.IGNORE_VERSION, RequestOptions.DEFAULT, handler);
+    }
+
+    /**
+     * Asynchronously saves the given <code>documents</code>.
+     * The saves run in parallel on the available workers and the handler
+     * receives one result for each document in the same order.
+     *
+     * @param documents the documents to save. Not <code>null</code>
+     * @param mode      {@link com.baasbox.android.SaveMode}
+     * @param flags     {@link RequestOptions}
+     * @param handler   a callback to be invoked with the result of each save
+     * @return a {@link com.baasbox.android.RequestToken} to handle the asynchronous request
+     */
+    public static RequestToken saveAll(List<BaasDocument> documents, SaveMode mode, int flags, BaasHandler<List<BaasResult<BaasDocument>>> handler) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (documents == null) throw new IllegalArgumentException("documents cannot be null");
+        if (mode == null) throw new IllegalArgumentException("mode cannot be null");
+        return box.submitAsync(new SaveAll(box, documents, mode, flags, handler));
+    }
+
+    /**
+     * Synchronously saves the given <code>documents</code>.
+     * See {@link #saveAll(List, SaveMode, int, BaasHandler)}
+     *
+     * @param documents the documents to save. Not <code>null</code>
+     * @param mode      {@link com.baasbox.android.SaveMode}
+     * @return the result of each save
+     */
+    public static BaasResult<List<BaasResult<BaasDocument>>> saveAllSync(List<BaasDocument> documents, SaveMode mode) {
+        BaasBox box = BaasBox.getDefaultChecked();
+        if (documents == null) throw new IllegalArgumentException("documents cannot be null");
+        if (mode == null) throw new IllegalArgumentException("mode cannot be null");
+        return box.submitSync(new SaveAll(box, documents, mode, RequestOptions.DEFAULT, null));
+    }
+
+    /**
+     * Queues a save of this document ignoring its version.
+     * See {@link #saveLater(SaveMode)}
+     */
+    public void saveLater() {
+        saveLater(SaveMode.IGNORE_VERSION);
+    }
+
+    /**
+     * Queues a save of the current state of this document.
+     * A snapshot of the document is stored on the device by a background thread
+     * and delivered to the server in order with the other queued writes as soon as it can be reached,
+     * surviving process death.
+     * The outcome is reported to the {@link com.baasbox.android.OutboxListener}
+     * set on the {@link com.baasbox.android.BaasBox.Builder}.
+     *
+     * @param mode {@link com.baasbox.android.SaveMode}
+     */
+    public void saveLater(SaveMode mode) {
+        if (mode == null) throw new IllegalArgumentException("mode cannot be null");
+        if (projected) throw new IllegalStateException("cannot queue a projected document, refresh it first");
+        BaasBox box = BaasBox.getDefaultChecked();
+        box.mOutbox.enqueueSave(this, mode);
+    }
+
+    /**
+     * Queues a delete of this document.
+     * If the document has been queued with {@link #saveLater(SaveMode)} and has not
+     * yet reached the server, the pending save is discarded.
+     */
+    public void deleteLater() {
+        if (id == null && outboxRef == null)
+            throw new IllegalStateException("this document is not bound to any remote entity");
+        BaasBox box = BaasBox.getDefaultChecked();
+        box.mOutbox.enqueueDelete(this);
     }
 
     // --------------------- GETTER / SETTER METHODS ---------------------
@@ -723,7 +975,8 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         Util.writeOptString(dest, author);
         Util.writeOptString(dest, creation_date);
         Util.writeOptString(dest, rid);
-        dest.writeParcelable(data, 0);
+        data.writeToParcel(dest, flags);
+        dest.writeByte((byte) (projected ? 1 : 0));
 
     }
 
@@ -1300,6 +1553,7 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         }
         this.data.merge(data);
         this.data.setDirty(false);
+        this.projected = false;
     }
 
     @Override
@@ -1307,6 +1561,29 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         return data.isDirty();
     }
 
+    /**
+     * Returns true if this document was fetched with a {@link com.baasbox.android.BaasQuery.Criteria}
+     * projection, so it holds only the projected fields.
+     * Such a document can only be saved one changed field at a time, as with
+     * {@link com.baasbox.android.SaveMode#PARTIAL}, since a whole update
+     * would drop the fields that were not fetched. Refresh it to get all of its fields.
+     *
+     * @return true if the document holds only some of its fields
+     */
+    public boolean isProjected() {
+        return projected;
+    }
+
+    private static BaasDocument fetched(JsonObject o, boolean projected) {
+        BaasDocument document = new BaasDocument(o);
+        if (projected) {
+            document.projected = true;
+            // changes are tracked against what was fetched
+            document.data.setDirty(false);
+        }
+        return document;
+    }
+
     /**
      * Returns a {@link com.baasbox.android.json.JsonArray} representation
      * of the values contained in this document.
@@ -1318,8 +1595,245 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         return data.values();
     }
 
+    String outboxRef() {
+        return outboxRef;
+    }
+
+    void bindOutbox(String ref, String id) {
+        this.outboxRef = ref;
+        if (id != null) {
+            this.id = id;
+        }
+    }
+
+    static NetworkTask<BaasDocument> saveTask(BaasBox box, BaasDocument document, SaveMode mode) {
+        return new Save(box, mode, null, document, Constants.PRIORITY_LOW, null);
+    }
+
+    static NetworkTask<Void> deleteTask(BaasBox box, String collection, String id) {
+        return new Delete(box, collection, id, Constants.PRIORITY_LOW, null);
+    }
+
 // -------------------------- INNER CLASSES --------------------------
 
+    private static final class Sync extends Task<List<BaasDocument>> {
+        private static final int PAGE_SIZE = 100;
+        // the marker is concatenated in the queries
+        private static final Pattern FIELD_PATH = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+
+        private final BaasBox box;
+        private final String collection;
+        private final String field;
+
+        protected Sync(BaasBox box, String collection, String field, int flags, BaasHandler<List<BaasDocument>> handler) {
+            super(flags, handler);
+            this.box = box;
+            this.collection = collection;
+            this.field = field;
+        }
+
+        static boolean isFieldPath(String field) {
+            return FIELD_PATH.matcher(field).matches();
+        }
+
+        @Override
+        protected List<BaasDocument> asyncCall() throws BaasException {
+            LocalStore store = box.mLocalStore;
+            String storedMark = store.getMark(collection, field);
+            Object mark = decodeMark(storedMark);
+            // pages are selected by key rather than offset so that documents updated
+            // while syncing cannot shift the others out of the result;
+            // the first page includes the mark since documents may share it
+            Object lastValue = null;
+            String lastId = null;
+            List<BaasDocument> changes = new ArrayList<BaasDocument>();
+            for (; ; ) {
+                BaasQuery.Builder query = BaasQuery.builder()
+                                                   .orderBy(field + " asc, id asc")
+                                                   .pagination(0, PAGE_SIZE);
+                if (lastValue != null) {
+                    String slot = slot(lastValue);
+                    query.where(field + " > " + slot + " or (" + field + " = " + slot + " and id > ?)")
+                         .whereParams(params(lastValue, lastValue, lastId));
+                } else if (mark != null) {
+                    query.where(field + " >= " + slot(mark)).whereParams(params(mark));
+                } else {
+                    query.where(field + " is not null");
+                }
+                Fetch fetch = new Fetch(box, collection, query.criteria(), Constants.PRIORITY_LOW, false, null);
+                List<BaasDocument> docs = box.submitSync(fetch).get();
+                if (docs.isEmpty()) {
+                    break;
+                }
+                BaasDocument last = docs.get(docs.size() - 1);
+                lastValue = valueAt(last.toJson(), field);
+                lastId = last.getId();
+                changes.addAll(docs);
+                if (lastValue == null || docs.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+            if (lastValue != null) {
+                String newMark = JsonArray.of(lastValue).toString();
+                if (!newMark.equals(storedMark)) {
+                    store.setMark(collection, field, newMark);
+                }
+            }
+            if (Logger.isLoggable(LogSink.DEBUG)) {
+                Logger.debug("synced %d documents of %s", changes.size(), collection);
+            }
+            return changes;
+        }
+
+        /**
+         * Returns the value at the dotted <code>path</code> of <code>o</code>
+         * if it can be compared by the server, null otherwise
+         */
+        private static Object valueAt(JsonObject o, String path) {
+            String[] names = path.split("\\.");
+            for (int i = 0; i < names.length - 1 && o != null; i++) {
+                o = o.typeAt(names[i]) == JsonObject.OBJECT ? o.getObject(names[i]) : null;
+            }
+            if (o == null) {
+                return null;
+            }
+            Object value = o.get(names[names.length - 1]);
+            return value instanceof String || value instanceof Number || value instanceof Boolean ? value : null;
+        }
+
+        /**
+         * Marks are stored as one element json arrays to keep their type;
+         * marks stored as plain text by previous versions are strings
+         */
+        private static Object decodeMark(String mark) {
+            if (mark == null) {
+                return null;
+            }
+            if (mark.startsWith("[")) {
+                try {
+                    JsonArray a = JsonArray.decode(mark);
+                    return a.size() == 1 ? a.<Object>get(0, null) : null;
+                } catch (RuntimeException e) {
+                    Logger.warn(e, "discarding corrupted sync mark of %s", mark);
+                    return null;
+                }
+            }
+            return mark;
+        }
+
+        /**
+         * Numbers and booleans are written as literals, the where params are bound as strings
+         */
+        private static String slot(Object value) {
+            if (value instanceof Double || value instanceof Float) {
+                return BigDecimal.valueOf(((Number) value).doubleValue()).toPlainString();
+            } else if (value instanceof Number || value instanceof Boolean) {
+                return value.toString();
+            }
+            return "?";
+        }
+
+        private static Object[] params(Object... values) {
+            List<Object> params = new ArrayList<Object>(values.length);
+            for (Object v : values) {
+                if ("?".equals(slot(v))) {
+                    params.add(v);
+                }
+            }
+            return params.toArray();
+        }
+    }
+
+    private static final class SaveAll extends BatchTask<BaasDocument> {
+        private final BaasBox box;
+        private final List<BaasDocument> documents;
+        private final SaveMode mode;
+
+        protected SaveAll(BaasBox box, List<BaasDocument> documents, SaveMode mode, int flags, BaasHandler<List<BaasResult<BaasDocument>>> handler) {
+            super(box, documents.size(), documents.size(), flags, handler);
+            this.box = box;
+            this.documents = new ArrayList<BaasDocument>(documents);
+            this.mode = mode;
+        }
+
+        @Override
+        protected void runUnit(int unit) {
+            BaasDocument document = documents.get(unit);
+            setResult(unit, box.submitSync(document.saveTask(box, mode, null, RequestOptions.DEFAULT, null)));
+        }
+    }
+
+    private static final class DeleteAll extends BatchTask<Void> {
+        private final BaasBox box;
+        private final String collection;
+        private final List<String> ids;
+
+        protected DeleteAll(BaasBox box, String collection, List<String> ids, int flags, BaasHandler<List<BaasResult<Void>>> handler) {
+            super(box, ids.size(), ids.size(), flags, handler);
+            this.box = box;
+            this.collection = collection;
+            this.ids = new ArrayList<String>(ids);
+        }
+
+        @Override
+        protected void runUnit(int unit) {
+            setResult(unit, box.submitSync(new Delete(box, collection, ids.get(unit), RequestOptions.DEFAULT, null)));
+        }
+    }
+
+    private static final class FetchByIds extends BatchTask<BaasDocument> {
+        // bounds the length of the query string of each request
+        private static final int CHUNK_SIZE = 50;
+
+        private final BaasBox box;
+        private final String collection;
+        private final List<String> ids;
+
+        protected FetchByIds(BaasBox box, String collection, List<String> ids, int flags, BaasHandler<List<BaasResult<BaasDocument>>> handler) {
+            super(box, ids.size(), (ids.size() + CHUNK_SIZE - 1) / CHUNK_SIZE, flags, handler);
+            this.box = box;
+            this.collection = collection;
+            this.ids = new ArrayList<String>(ids);
+        }
+
+        @Override
+        protected void runUnit(int unit) {
+            int from = unit * CHUNK_SIZE;
+            int to = Math.min(from + CHUNK_SIZE, ids.size());
+            List<String> chunk = ids.subList(from, to);
+            StringBuilder where = new StringBuilder("id in [");
+            for (int i = 0; i < chunk.size(); i++) {
+                where.append(i == 0 ? "?" : ",?");
+            }
+            where.append(']');
+            BaasQuery.Criteria criteria = BaasQuery.builder()
+                                                   .where(where.toString())
+                                                   .whereParams(chunk.toArray())
+                                                   .criteria();
+            Fetch fetch = new Fetch(box, collection, criteria, RequestOptions.DEFAULT, false, null);
+            BaasResult<List<BaasDocument>> fetched = box.submitSync(fetch);
+            if (fetched.isFailed()) {
+                for (int i = from; i < to; i++) {
+                    setResult(i, BaasResult.<BaasDocument>failure(fetched.error()));
+                }
+                return;
+            }
+            Map<String, BaasDocument> found = new HashMap<String, BaasDocument>();
+            for (BaasDocument doc : fetched.value()) {
+                found.put(doc.id, doc);
+            }
+            for (int i = from; i < to; i++) {
+                BaasDocument doc = found.get(ids.get(i));
+                if (doc != null) {
+                    setResult(i, BaasResult.success(doc));
+                } else {
+                    JsonObject error = JsonObject.of("message", "document not found: " + ids.get(i));
+                    setResult(i, BaasResult.<BaasDocument>failure(new BaasClientException(404, error)));
+                }
+            }
+        }
+    }
+
     private static final class Delete extends NetworkTask<Void> {
         private final BaasDocument document;
         private final String id;
@@ -1342,6 +1856,12 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         @Override
         protected Void onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
             if (document != null) document.id = null;
+            if (box.mLocalStore != null) {
+                box.mLocalStore.remove(collection, id);
+            }
+            if (box.mQueryCache != null) {
+                box.mQueryCache.invalidate(collection);
+            }
             return null;
         }
 
@@ -1382,6 +1902,7 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
             if (acl!=null){
                 document.acl = acl;
             }
+            onSaved(box, document);
             return document;
         }
 
@@ -1417,6 +1938,78 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
         }
     }
 
+    private static void onSaved(BaasBox box, BaasDocument document) {
+        if (box.mLocalStore != null) {
+            box.mLocalStore.put(document);
+        }
+        if (box.mQueryCache != null) {
+            box.mQueryCache.invalidate(document.collection);
+        }
+    }
+
+    private static final class PartialSave extends Task<BaasDocument> {
+        private final BaasBox box;
+        private final BaasDocument document;
+        private final JsonObject data;
+        private final Set<String> changed;
+
+        protected PartialSave(BaasBox box, BaasDocument document, int flags, BaasHandler<BaasDocument> handler) {
+            super(flags, handler);
+            this.box = box;
+            this.document = document;
+            this.data = document.data.copy();
+            this.changed = document.id == null ? null : document.data.changedFields();
+        }
+
+        @Override
+        protected BaasDocument asyncCall() throws BaasException {
+            if (changed != null && changed.isEmpty()) {
+                return document;
+            }
+            String field = changed == null ? null : changed.iterator().next();
+            // field updates are one per request and cannot unset a field,
+            // anything else is sent whole in a single update
+            if (changed == null || changed.size() > 1 || !data.contains(field)) {
+                if (document.isProjected()) {
+                    throw new BaasException("a projected document can only be saved one changed field at a time, refresh it first");
+                }
+                SaveMode mode = changed == null ? SaveMode.IGNORE_VERSION : SaveMode.CHECK_VERSION;
+                return box.submitSync(new Save(box, mode, null, document, RequestOptions.DEFAULT, null)).get();
+            }
+            JsonObject saved = box.submitSync(new SaveField(box, document.collection, document.id, field, data.get(field))).get();
+            document.update(saved);
+            onSaved(box, document);
+            Logger.debug("saved field %s of %s", field, document.id);
+            return document;
+        }
+    }
+
+    private static final class SaveField extends NetworkTask<JsonObject> {
+        private final String collection;
+        private final String id;
+        private final String field;
+        private final Object value;
+
+        protected SaveField(BaasBox box, String collection, String id, String field, Object value) {
+            super(box, RequestOptions.DEFAULT, null);
+            this.collection = collection;
+            this.id = id;
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        protected JsonObject onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
+            return parseJson(response, box).getObject("data");
+        }
+
+        @Override
+        protected HttpRequest request(BaasBox box) {
+            String endpoint = box.requestFactory.getEndpoint("document/{}/{}/.{}", collection, id, Uri.encode(field));
+            return box.requestFactory.put(endpoint, JsonObject.of("data", value));
+        }
+    }
+
     private static final class Access extends BaasObject.Access {
         protected Access(BaasBox box, boolean add, boolean isRole, String collection, String id, String to, Grant grant, int flags, BaasHandler<Void> handler) {
             super(box, add, isRole, collection, id, to, grant,flags, handler);
@@ -1435,19 +2028,58 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
 
     private static final class Refresh extends NetworkTask<BaasDocument> {
         private final BaasDocument document;
+        private final int flags;
+        private final LocalStore store;
+        // set on the background reconciliation that claimed the key
+        private String reconcileKey;
 
         private RequestFactory.Param aclParam;
 
         protected Refresh(BaasBox box, BaasDocument doc,boolean withAcl, int flags, BaasHandler<BaasDocument> handler) {
             super(box, flags, handler);
             this.document = doc;
+            this.flags = flags;
+            this.store = box.mLocalStore;
             aclParam = withAcl? new RequestFactory.Param("withAcl","true"):null;
         }
 
+        @Override
+        protected BaasDocument getFromCache(BaasBox box) throws BaasException {
+            if (box.mLocalStore == null || aclParam != null || (flags & RequestOptions.LOCAL_FIRST) == 0) {
+                return null;
+            }
+            JsonObject local = box.mLocalStore.get(document.collection, document.id);
+            if (local == null) {
+                return null;
+            }
+            document.update(local);
+            String key = document.collection + '/' + document.id;
+            if (box.mLocalStore.beginReconcile(key)) {
+                Refresh reconcile = new Refresh(box, new BaasDocument(local.copy()), false, Constants.PRIORITY_LOW, null);
+                reconcile.reconcileKey = key;
+                box.submitAsync(reconcile);
+            }
+            return document;
+        }
+
+        @Override
+        protected BaasDocument asyncCall() throws BaasException {
+            try {
+                return super.asyncCall();
+            } finally {
+                if (reconcileKey != null) {
+                    store.endReconcile(reconcileKey);
+                }
+            }
+        }
+
         @Override
         protected BaasDocument onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
             JsonObject object = parseJson(response, box).getObject("data");
             document.update(object);
+            if (box.mLocalStore != null) {
+                box.mLocalStore.put(document);
+            }
             return document;
         }
 
@@ -1465,23 +2097,95 @@ public final class BaasDocument extends BaasObject implements Iterable<Map.Entry
     private static final class Fetch extends NetworkTask<List<BaasDocument>> {
         private final String collection;
         private final RequestFactory.Param[] filter;
+        private final int flags;
+        private final LocalStore store;
+        private final String queryKey;
+        private final JsonSelector selector;
+        // set on the background reconciliation that claimed the collection
+        private String reconcileKey;
 
         protected Fetch(BaasBox box, String collection, BaasQuery.Criteria filter, int flags, BaasHandler<List<BaasDocument>> handler) {
+            this(box, collection, filter, flags, true, handler);
+        }
+
+        protected Fetch(BaasBox box, String collection, BaasQuery.Criteria filter, int flags, boolean cacheable, BaasHandler<List<BaasDocument>> handler) {
             super(box, flags, handler);
             this.collection = collection;
             this.filter = filter == null ? null : filter.toParams();
+            JsonSelector projection = filter == null ? null : filter.selector();
+            this.selector = projection == null ? null : projection.with(SYSTEM_FIELDS).under("data");
+            this.flags = flags;
+            this.store = box.mLocalStore;
+            this.queryKey = cacheable && box.mQueryCache != null ? QueryCache.key(QueryCache.FETCH, collection, this.filter) : null;
+        }
+
+        @Override
+        protected List<BaasDocument> getFromCache(BaasBox box) throws BaasException {
+            if (queryKey != null) {
+                List<JsonObject> cached = box.mQueryCache.get(queryKey);
+                if (cached != null) {
+                    List<BaasDocument> res = new ArrayList<BaasDocument>(cached.size());
+                    for (JsonObject o : cached) {
+                        res.add(fetched(o, selector != null));
+                    }
+                    return res;
+                }
+            }
+            if (box.mLocalStore == null || filter != null || (flags & RequestOptions.LOCAL_FIRST) == 0) {
+                return null;
+            }
+            List<JsonObject> local = box.mLocalStore.getAll(collection);
+            if (local == null) {
+                return null;
+            }
+            if (box.mLocalStore.beginReconcile(collection)) {
+                Fetch reconcile = new Fetch(box, collection, null, Constants.PRIORITY_LOW, null);
+                reconcile.reconcileKey = collection;
+                box.submitAsync(reconcile);
+            }
+            List<BaasDocument> res = new ArrayList<BaasDocument>(local.size());
+            for (JsonObject o : local) {
+                res.add(new BaasDocument(o));
+            }
+            return res;
+        }
+
+        @Override
+        protected List<BaasDocument> asyncCall() throws BaasException {
+            try {
+                return super.asyncCall();
+            } finally {
+                if (reconcileKey != null) {
+                    store.endReconcile(reconcileKey);
+                }
+            }
         }
 
         @Override
         protected List<BaasDocument> onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
-            JsonArray jsonData = parseJson(response, box).getArray("data");
-            Logger.debug("received: " + jsonData);
+            JsonArray jsonData = parseJson(response, box, selector).getArray("data");
+            Logger.debug("received %s", jsonData);
             if (jsonData == null) {
                 return Collections.emptyList();
             } else {
+                if (queryKey != null) {
+                    List<JsonObject> results = new ArrayList<JsonObject>(jsonData.size());
+                    for (Object obj : jsonData) {
+                        results.add((JsonObject) obj);
+                    }
+                    box.mQueryCache.put(collection, queryKey, results);
+                }
                 List<BaasDocument> res = new ArrayList<BaasDocument>();
                 for (Object obj : jsonData) {
-                    res.add(new BaasDocument((JsonObject) obj));
+                    res.add(fetched((JsonObject) obj, selector != null));
+                }
+                // projected documents are incomplete and must not replace the stored ones
+                if (box.mLocalStore != null && selector == null) {
+                    if (filter == null) {
+                        box.mLocalStore.replaceAll(collection, res);
+                    } else {
+                        box.mLocalStore.putAll(res);
+                    }
                 }
                 return res;
             }
@@ -17,9 +17,9 @@ package com.baasbox.android;
 
 
 import android.text.TextUtils;
-import com.baasbox.android.impl.Logger;
 import com.baasbox.android.json.JsonArray;
 import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.JsonSelector;
 import com.baasbox.android.net.HttpRequest;
 import com.baasbox.android.net.HttpResponse;
 
@@ -39,10 +39,12 @@ public class BaasQuery {
 
         private RequestFactory.Param[] params;
         private Builder originalBuilder;
+        private JsonSelector selector;
 
         private Criteria(Builder builder){
             this.originalBuilder=builder;
             this.params = builder.toFilterParams();
+            this.selector = builder.count?null:builder.toSelector();
         }
 
         public final Builder buildUpon(){
@@ -52,6 +54,13 @@ public class BaasQuery {
         final RequestFactory.Param[] toParams(){
             return this.params;
         }
+
+        /**
+         * The fields of the projection, null if every field is returned
+         */
+        final JsonSelector selector(){
+            return this.selector;
+        }
     }
 
     static class Paging{
@@ -67,6 +76,7 @@ public class BaasQuery {
     private final String collOrUsr;
     private final int mode;
     private final Builder originalBuilder;
+    private final JsonSelector selector;
 
     public static Builder builder(){
         return new Builder();
@@ -81,6 +91,7 @@ public class BaasQuery {
         this.collOrUsr=collectionOrUser;
         this.originalBuilder = builder;
         this.params=originalBuilder.toParams();
+        this.selector=originalBuilder.toSelector();
     }
 
     @Override
@@ -119,7 +130,7 @@ public class BaasQuery {
     public RequestToken query(String what,int flags,BaasHandler<List<JsonObject>> handler){
         if (mode == COLLECTIONS && what==null) throw new IllegalArgumentException("collection cannot be null");
         BaasBox box = BaasBox.getDefaultChecked();
-        QueryRequest request = new QueryRequest(box,mode,collOrUsr,params, flags,handler);
+        QueryRequest request = new QueryRequest(box,mode,collOrUsr,params,selector, flags,handler);
         return box.submitAsync(request);
     }
 
@@ -130,7 +141,7 @@ public class BaasQuery {
     public BaasResult<List<JsonObject>> querySync(String what){
         if (mode == COLLECTIONS && what==null)throw new IllegalArgumentException("collection cannot be null");
         BaasBox box = BaasBox.getDefaultChecked();
-        QueryRequest req = new QueryRequest(box,mode,what,params, RequestOptions.DEFAULT,null);
+        QueryRequest req = new QueryRequest(box,mode,what,params,selector, RequestOptions.DEFAULT,null);
         return box.submitSync(req);
     }
 
@@ -138,9 +149,19 @@ public class BaasQuery {
     private static class QueryRequest extends NetworkTask<List<JsonObject>>{
         private RequestFactory.Param[] params;
         private String endpoint;
-        protected QueryRequest(BaasBox box,int mode,String what,RequestFactory.Param[] params, int flags, BaasHandler<List<JsonObject>> handler) {
+        private final String local;
+        private final LocalStore store;
+        private final String collection;
+        private final String queryKey;
+        private final JsonSelector selector;
+        protected QueryRequest(BaasBox box,int mode,String what,RequestFactory.Param[] params,JsonSelector selector, int flags, BaasHandler<List<JsonObject>> handler) {
             super(box, flags, handler);
             this.params=params;
+            this.selector=selector==null?null:selector.under("data");
+            this.store = box.mLocalStore;
+            this.local = (mode==COLLECTIONS && params==null && (flags&RequestOptions.LOCAL_FIRST)!=0)?what:null;
+            this.collection = mode==COLLECTIONS?what:null;
+            this.queryKey = (collection!=null && box.mQueryCache!=null)?QueryCache.key(QueryCache.QUERY,collection,params):null;
             String endpoint;
             switch (mode){
                 case COLLECTIONS:
@@ -172,9 +193,30 @@ public class BaasQuery {
             this.endpoint=endpoint;
         }
 
+        @Override
+        protected List<JsonObject> getFromCache(BaasBox box) throws BaasException {
+            if (queryKey != null) {
+                List<JsonObject> cached = box.mQueryCache.get(queryKey);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            if (store == null || local == null) {
+                return null;
+            }
+            List<JsonObject> docs = store.getAll(local);
+            if (docs == null) {
+                return null;
+            }
+            for (JsonObject jo : docs) {
+                jo.remove("@rid");
+            }
+            return docs;
+        }
+
         @Override
         protected List<JsonObject> onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
-            JsonArray a=parseJson(response,box).getArray("data");
+            JsonArray a=parseJson(response,box,selector).getArray("data");
             List<JsonObject> r = new ArrayList<JsonObject>();
             for(Object o:a){
                 if(o instanceof JsonObject){
@@ -186,6 +228,9 @@ public class BaasQuery {
                     throw new BaasIOException("unable to parse json");
                 }
             }
+            if (queryKey != null) {
+                box.mQueryCache.put(collection, queryKey, r);
+            }
             return r;
         }
 
@@ -251,10 +296,23 @@ public class BaasQuery {
             validate();
             List<RequestFactory.Param> reqParams = new ArrayList<RequestFactory.Param>();
             filterParams(reqParams);
+            if (fields!=null&&!count){
+                reqParams.add(new RequestFactory.Param("fields",fields));
+            }
             if (reqParams.size()==0) return null;
             return reqParams.toArray(new RequestFactory.Param[reqParams.size()]);
         }
 
+        /**
+         * Selects the fields of the projection so that anything else
+         * sent by the server is skipped while parsing
+         */
+        private JsonSelector toSelector(){
+            if (fields==null) return null;
+            JsonSelector selector = JsonSelector.parse(fields);
+            return selector==JsonSelector.ALL?null:selector;
+        }
+
         private RequestFactory.Param[] toParams(){
             validate();
             List<RequestFactory.Param> reqParams = new ArrayList<RequestFactory.Param>();
@@ -263,7 +321,6 @@ public class BaasQuery {
                 reqParams.add(new RequestFactory.Param("groupBy",groupBy));
             }
             if (fields!=null){
-                Logger.error("REQ: %s",fields);
                 reqParams.add(new RequestFactory.Param("fields",fields));
             }
             if (reqParams.size()==0) return null;
@@ -1125,7 +1125,7 @@ public class BaasUser implements Parcelable {
         @Override
         protected BaasUser onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
             JsonObject data = parseJson(response, box).getObject("data");
-            Logger.debug("RECEIVED " + data.toString());
+            Logger.debug("received %s", data);
             String tok = data.getString("X-BB-SESSION");
             if (tok == null) throw new BaasException("Could not parse server response, missing token");
             BaasUser user = new BaasUser(data);
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+import com.baasbox.android.impl.Logger;
+import com.baasbox.android.impl.Task;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task that runs a batch of independent requests, collecting one result per item.
+ * The batch is split in units that are claimed one at a time by the batch itself
+ * and by helper tasks submitted to the other workers, so units run in parallel
+ * when workers are free and are never left waiting on a busy dispatcher:
+ * helpers starting after every unit has been claimed simply do nothing.
+ *
+ * @param <R> the type of the result of each item
+ */
+abstract class BatchTask<R> extends Task<List<BaasResult<R>>> {
+// ------------------------------ FIELDS ------------------------------
+
+    private final BaasBox box;
+    private final int units;
+    private final BaasResult<R>[] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final CountDownLatch remaining;
+    private volatile RuntimeException failure;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    @SuppressWarnings("unchecked")
+    protected BatchTask(BaasBox box, int items, int units, int flags, BaasHandler<List<BaasResult<R>>> handler) {
+        super(flags, handler);
+        this.box = box;
+        this.units = units;
+        this.results = new BaasResult[items];
+        this.remaining = new CountDownLatch(units);
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Runs the requests of <code>unit</code> storing their results through {@link #setResult(int, BaasResult)}
+     */
+    protected abstract void runUnit(int unit);
+
+    protected final void setResult(int item, BaasResult<R> result) {
+        results[item] = result;
+    }
+
+    @Override
+    protected final List<BaasResult<R>> asyncCall() throws BaasException {
+        int helpers = Math.min(box.workerCount(), units - 1);
+        for (int i = 0; i < helpers; i++) {
+            box.submitAsync(new Helper(RequestOptions.DEFAULT));
+        }
+        drain();
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaasCancellationException();
+        }
+        RuntimeException failure = this.failure;
+        if (failure != null) {
+            // items left without a result belong to units that threw
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    results[i] = BaasResult.failure(new BaasException(failure));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void drain() {
+        int unit;
+        while ((unit = next.getAndIncrement()) < units) {
+            try {
+                runUnit(unit);
+            } catch (RuntimeException e) {
+                Logger.error(e, "batch unit %d failed", unit);
+                failure = e;
+            } finally {
+                remaining.countDown();
+            }
+        }
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private final class Helper extends Task<Void> {
+        Helper(int flags) {
+            super(flags, null);
+        }
+
+        @Override
+        protected Void asyncCall() throws BaasException {
+            drain();
+            return null;
+        }
+    }
+}
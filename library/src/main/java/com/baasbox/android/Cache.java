@@ -7,6 +7,8 @@ import com.baasbox.android.impl.DiskLruCache;
 import com.baasbox.android.impl.Logger;
 
 import java.io.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by Andrea Tortorella on 05/02/14.
@@ -19,6 +21,12 @@ final class Cache {
 
     private final DiskLruCache mLruCache;
 
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mBytesServed = new AtomicLong();
+    private final AtomicLong mWriteFailures = new AtomicLong();
+    private final AtomicLong mReadNanos = new AtomicLong();
+
 // --------------------------- CONSTRUCTORS ---------------------------
     Cache(Context context) {
         try {
@@ -51,8 +59,9 @@ final class Cache {
         try {
             editor = mLruCache.edit(id);
             out = editor.newOutputStream(0);
-            return new CacheStream(out, editor);
+            return new CacheStream(out, editor, mWriteFailures);
         } catch (IOException e) {
+            mWriteFailures.incrementAndGet();
             throw new BaasIOException(e);
         }
     }
@@ -60,14 +69,18 @@ final class Cache {
     public byte[] get(String id) {
         DiskLruCache.Snapshot s = null;
         DataInputStream din = null;
-
+        long start = System.nanoTime();
         try {
             s = mLruCache.get(id);
-            if (s == null) return null;
+            if (s == null) {
+                recordMiss(start);
+                return null;
+            }
             int len = (int) s.getLength(0);
             byte[] bytes = new byte[len];
             din = new DataInputStream(s.getInputStream(0));
             din.readFully(bytes);
+            recordHit(start, len);
             return bytes;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -90,8 +103,13 @@ final class Cache {
     public BaasStream getStream(String id) throws BaasIOException {
         DiskLruCache.Snapshot s = null;
         try {
+            long start = System.nanoTime();
             s = mLruCache.get(id);
-            if (s == null) return null;
+            if (s == null) {
+                recordMiss(start);
+                return null;
+            }
+            recordHit(start, s.getLength(0));
             return new BaasStream(id, s);
         } catch (IOException e) {
             throw new BaasIOException("Error while reading from cache", e);
@@ -108,6 +126,7 @@ final class Cache {
             out.flush();
             edit.commit();
         } catch (IOException e) {
+            mWriteFailures.incrementAndGet();
             Logger.error(e, "Error using cache");
         } finally {
             if (out != null) {
@@ -123,20 +142,81 @@ final class Cache {
         }
     }
 
+    /**
+     * Returns the keys of the cached entries starting with <code>prefix</code>
+     */
+    public List<String> keys(String prefix) {
+        return mLruCache.keys(prefix == null ? "" : prefix);
+    }
+
+    /**
+     * Returns the bytes used by the entries starting with <code>prefix</code>
+     */
+    public long size(String prefix) {
+        long total = 0;
+        for (String key : keys(prefix)) {
+            long size = mLruCache.size(key);
+            if (size > 0) {
+                total += size;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Removes the entries starting with <code>prefix</code>
+     *
+     * @return the number of removed entries
+     */
+    public int purge(String prefix) {
+        int removed = 0;
+        for (String key : keys(prefix)) {
+            try {
+                if (mLruCache.remove(key)) {
+                    removed++;
+                }
+            } catch (IOException e) {
+                Logger.warn(e, "Unable to purge cache entry %s", key);
+            }
+        }
+        return removed;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(mHits.get(), mMisses.get(), mBytesServed.get(),
+                mLruCache.getEvictionCount(), mWriteFailures.get(),
+                mLruCache.getJournalRebuildCount(), mLruCache.size(),
+                mLruCache.getMaxSize(), mReadNanos.get());
+    }
+
+    private void recordHit(long start, long bytes) {
+        mReadNanos.addAndGet(System.nanoTime() - start);
+        mHits.incrementAndGet();
+        mBytesServed.addAndGet(bytes);
+    }
+
+    private void recordMiss(long start) {
+        mReadNanos.addAndGet(System.nanoTime() - start);
+        mMisses.incrementAndGet();
+    }
+
 // -------------------------- INNER CLASSES --------------------------
 
     static class CacheStream extends FilterOutputStream {
         private final DiskLruCache.Editor editor;
+        private final AtomicLong failures;
 
-        CacheStream(OutputStream out, DiskLruCache.Editor editor) {
+        CacheStream(OutputStream out, DiskLruCache.Editor editor, AtomicLong failures) {
             super(out);
             this.editor = editor;
+            this.failures = failures;
         }
 
         public void commit() throws BaasException {
             try {
                 editor.commit();
             } catch (IOException e) {
+                failures.incrementAndGet();
                 throw new BaasException(e);
             }
         }
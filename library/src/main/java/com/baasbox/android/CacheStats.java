@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the statistics of the disk cache used for files and assets.
+ * Counters are cumulative since the client was initialized.
+ *
+ * @see BaasBox#cacheStats()
+ */
+public final class CacheStats {
+// ------------------------------ FIELDS ------------------------------
+
+    /**
+     * Number of reads answered from the cache
+     */
+    public final long hits;
+
+    /**
+     * Number of reads that did not find an entry
+     */
+    public final long misses;
+
+    /**
+     * Total bytes served from the cache
+     */
+    public final long bytesServed;
+
+    /**
+     * Number of entries evicted to respect the size limit
+     */
+    public final long evictions;
+
+    /**
+     * Number of writes to the cache that failed
+     */
+    public final long writeFailures;
+
+    /**
+     * Number of times the cache journal has been compacted
+     */
+    public final long journalRebuilds;
+
+    /**
+     * Bytes currently stored
+     */
+    public final long size;
+
+    /**
+     * Maximum number of bytes the cache can store
+     */
+    public final long maxSize;
+
+    private final long readNanos;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    CacheStats(long hits, long misses, long bytesServed, long evictions, long writeFailures,
+               long journalRebuilds, long size, long maxSize, long readNanos) {
+        this.hits = hits;
+        this.misses = misses;
+        this.bytesServed = bytesServed;
+        this.evictions = evictions;
+        this.writeFailures = writeFailures;
+        this.journalRebuilds = journalRebuilds;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.readNanos = readNanos;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns the ratio of reads answered from the cache, between 0 and 1
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the average latency of a cache read in microseconds
+     */
+    public double averageReadMicros() {
+        long total = hits + misses;
+        return total == 0 ? 0 : readNanos / 1000.0 / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "CacheStats{hits=%d, misses=%d, hitRate=%.2f, bytesServed=%d, evictions=%d, " +
+                        "writeFailures=%d, journalRebuilds=%d, size=%d/%d, avgReadMicros=%.1f}",
+                hits, misses, hitRate(), bytesServed, evictions, writeFailures, journalRebuilds,
+                size, maxSize, averageReadMicros());
+    }
+}
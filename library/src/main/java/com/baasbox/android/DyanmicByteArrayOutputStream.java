@@ -1,5 +1,8 @@
 package com.baasbox.android;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 
 /**
  * Created by Andrea Tortorella on 2/23/15.
@@ -11,6 +14,10 @@ class DyanmicByteArrayOutputStream extends java.io.ByteArrayOutputStream impleme
         super();
         
     }
+
+    DyanmicByteArrayOutputStream(int size){
+        super(size);
+    }
     
     @Override
     public byte[] data(){
@@ -21,6 +28,14 @@ class DyanmicByteArrayOutputStream extends java.io.ByteArrayOutputStream impleme
         }
     }
 
+    /**
+     * Returns a stream over the bytes written so far, sharing the buffer
+     * instead of copying it
+     */
+    InputStream asInputStream(){
+        return new ByteArrayInputStream(buf,0,count);
+    }
+
 
     
 }
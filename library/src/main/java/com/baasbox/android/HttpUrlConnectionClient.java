@@ -91,10 +91,7 @@ class HttpUrlConnectionClient implements RestClient {
     @Override
     public void init(Context context,BaasBox.Config config){
         this.config = config;
-        if (config.useHttps){
-
-        }
-        disableReuseConnectionIfNecessary(config.useHttps);
+        disableReuseConnectionIfNecessary();
         enableHttpCacheIfAvailable(context,HTTP_CACHE_SIZE);
     }
 
@@ -126,8 +123,10 @@ class HttpUrlConnectionClient implements RestClient {
         }
     }
 
-    private void disableReuseConnectionIfNecessary(boolean https) {
-        if (https || Build.VERSION.SDK_INT < Build.VERSION_CODES.FROYO) {
+    private void disableReuseConnectionIfNecessary() {
+        // before froyo reusing a connection could corrupt the responses,
+        // later releases pool connections over https too
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.FROYO) {
             System.setProperty("http.keepAlive", "false");
         }
     }
@@ -166,7 +165,6 @@ class HttpUrlConnectionClient implements RestClient {
             } catch (IOException e) {
                 responseCode = connection.getResponseCode();
             }
-            Logger.info("Connection response received");
             if (responseCode == -1) {
                 throw new IOException("Connection failed");
             }
@@ -190,18 +188,12 @@ class HttpUrlConnectionClient implements RestClient {
 // -------------------------- OTHER METHODS --------------------------
 
     private HttpResponse.Body asEntity(HttpURLConnection connection) {
-//        BasicHttpEntity entity = new BasicHttpEntity();
-        InputStream in;
-        try {
-            in = connection.getInputStream();
-        } catch (IOException e) {
-            in = connection.getErrorStream();
-        }
-        UrlConnectionBody body = new UrlConnectionBody(connection);
-        return body;
+        return new UrlConnectionBody(connection);
     }
 
     private static class UrlConnectionBody extends HttpResponse.Body{
+        // bodies longer than this are not worth reading just to keep the connection
+        private static final int MAX_DRAIN = 64 * 1024;
 
         private final String contentType;
         private final long contentLength;
@@ -234,6 +226,9 @@ class HttpUrlConnectionClient implements RestClient {
 
         @Override
         protected String contentString(String charset) throws IOException {
+            if (in == null) {
+                return null;
+            }
             try {
                 StringWriter w = new StringWriter();
                 InputStreamReader reader = new InputStreamReader(in, charset);
@@ -245,7 +240,7 @@ class HttpUrlConnectionClient implements RestClient {
                 w.flush();
                 return w.toString();
             } finally {
-                in.close();
+                close();
             }
         }
 
@@ -256,9 +251,19 @@ class HttpUrlConnectionClient implements RestClient {
 
         @Override
         public synchronized void close() throws IOException {
-            if (!closed) {
+            if (!closed && in != null) {
                 closed = true;
-                in.close();
+                try {
+                    // the connection goes back to the pool only once the body is exhausted
+                    byte[] skip = new byte[4096];
+                    int drained = 0;
+                    int read;
+                    while (drained < MAX_DRAIN && (read = in.read(skip)) != -1) {
+                        drained += read;
+                    }
+                } finally {
+                    in.close();
+                }
             }
         }
     }
@@ -4,11 +4,15 @@ import android.os.Parcel;
 
 import com.baasbox.android.json.JsonObject;
 
+import java.util.Set;
+
 /**
  * Created by eto on 17/02/14.
  */
 final class JsonWrapper extends JsonObject{
     private volatile boolean mDirty;
+    // snapshot of the content as of the last sync with the server, null if unknown
+    private JsonObject mBase;
 
     JsonWrapper(){
         super(new JsonObject());
@@ -37,6 +41,17 @@ final class JsonWrapper extends JsonObject{
 
     void setDirty(boolean dirty){
         mDirty=dirty;
+        // copies share their content until modified, so this is cheap
+        mBase = dirty ? null : copy();
+    }
+
+    /**
+     * Returns the names of the fields set or removed since the last sync,
+     * or null if the content on the server is unknown
+     */
+    Set<String> changedFields(){
+        JsonObject base = mBase;
+        return base == null ? null : changedFields(base);
     }
 
     @Override
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.baasbox.android.impl.Logger;
+import com.baasbox.android.json.JsonException;
+import com.baasbox.android.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local replica of the documents fetched from the server.
+ * Documents are stored in sqlite keyed by collection and id,
+ * together with their version.
+ */
+final class LocalStore {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String DB_NAME = "baasbox-local-store.db";
+    private static final int DB_VERSION = 2;
+
+    private static final String DOCUMENTS = "documents";
+    private static final String COLLECTIONS = "collections";
+    private static final String MARKS = "marks";
+
+    private static final String COL_COLLECTION = "collection";
+    private static final String COL_ID = "id";
+    private static final String COL_VERSION = "version";
+    private static final String COL_DATA = "data";
+    private static final String COL_NAME = "name";
+    private static final String COL_SYNCED = "synced";
+    private static final String COL_FIELD = "field";
+    private static final String COL_MARK = "mark";
+
+    private static final String BY_DOCUMENT = COL_COLLECTION + "=? AND " + COL_ID + "=?";
+    private static final String BY_COLLECTION = COL_COLLECTION + "=?";
+
+    private final Helper mHelper;
+    private final ConcurrentHashSet<String> mReconciling = new ConcurrentHashSet<String>();
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    LocalStore(Context context) {
+        mHelper = new Helper(context);
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns the locally stored document or null if it is not known
+     */
+    JsonObject get(String collection, String id) {
+        SQLiteDatabase db = mHelper.getReadableDatabase();
+        Cursor c = null;
+        try {
+            c = db.query(DOCUMENTS, new String[]{COL_DATA}, BY_DOCUMENT, new String[]{collection, id}, null, null, null);
+            if (c.moveToFirst()) {
+                return decode(c.getString(0));
+            }
+            return null;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    /**
+     * Returns all the documents of the collection or null
+     * if the collection has never been mirrored locally.
+     */
+    List<JsonObject> getAll(String collection) {
+        SQLiteDatabase db = mHelper.getReadableDatabase();
+        Cursor c = null;
+        try {
+            c = db.query(COLLECTIONS, new String[]{COL_SYNCED}, COL_NAME + "=?", new String[]{collection}, null, null, null);
+            if (!c.moveToFirst()) {
+                return null;
+            }
+            c.close();
+            c = db.query(DOCUMENTS, new String[]{COL_DATA}, BY_COLLECTION, new String[]{collection}, null, null, "rowid");
+            List<JsonObject> docs = new ArrayList<JsonObject>(c.getCount());
+            while (c.moveToNext()) {
+                JsonObject o = decode(c.getString(0));
+                if (o != null) {
+                    docs.add(o);
+                }
+            }
+            return docs;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    void put(BaasDocument document) {
+        if (document.getId() == null) return;
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.insertWithOnConflict(DOCUMENTS, null, values(document), SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Stores a snapshot of a document, <code>data</code> being its encoded json
+     */
+    void put(String collection, String id, long version, String data) {
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.insertWithOnConflict(DOCUMENTS, null, values(collection, id, version, data), SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    void putAll(List<BaasDocument> documents) {
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (BaasDocument doc : documents) {
+                if (doc.getId() == null) continue;
+                db.insertWithOnConflict(DOCUMENTS, null, values(doc), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Replaces the whole content of a collection with
+     * the documents passed in, marking the collection as mirrored.
+     */
+    void replaceAll(String collection, List<BaasDocument> documents) {
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(DOCUMENTS, BY_COLLECTION, new String[]{collection});
+            for (BaasDocument doc : documents) {
+                if (doc.getId() == null) continue;
+                db.insertWithOnConflict(DOCUMENTS, null, values(doc), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            ContentValues mark = new ContentValues();
+            mark.put(COL_NAME, collection);
+            mark.put(COL_SYNCED, System.currentTimeMillis());
+            db.insertWithOnConflict(COLLECTIONS, null, mark, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    void remove(String collection, String id) {
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.delete(DOCUMENTS, BY_DOCUMENT, new String[]{collection, id});
+    }
+
+    /**
+     * Returns the high-water mark of the last sync of <code>collection</code>
+     * on <code>field</code>, or null if the collection has never been synced.
+     */
+    String getMark(String collection, String field) {
+        SQLiteDatabase db = mHelper.getReadableDatabase();
+        Cursor c = null;
+        try {
+            c = db.query(MARKS, new String[]{COL_MARK}, COL_COLLECTION + "=? AND " + COL_FIELD + "=?",
+                    new String[]{collection, field}, null, null, null);
+            return c.moveToFirst() ? c.getString(0) : null;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    void setMark(String collection, String field, String mark) {
+        ContentValues values = new ContentValues();
+        values.put(COL_COLLECTION, collection);
+        values.put(COL_FIELD, field);
+        values.put(COL_MARK, mark);
+        mHelper.getWritableDatabase().insertWithOnConflict(MARKS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    void clear() {
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(DOCUMENTS, null, null);
+            db.delete(COLLECTIONS, null, null);
+            db.delete(MARKS, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Marks the start of a background reconciliation for <code>key</code>
+     *
+     * @return false if a reconciliation for the same key is already in flight
+     */
+    boolean beginReconcile(String key) {
+        return mReconciling.add(key);
+    }
+
+    void endReconcile(String key) {
+        mReconciling.remove(key);
+    }
+
+    private static ContentValues values(BaasDocument doc) {
+        return values(doc.getCollection(), doc.getId(), doc.getVersion(), doc.toJson().toString());
+    }
+
+    private static ContentValues values(String collection, String id, long version, String data) {
+        ContentValues values = new ContentValues();
+        values.put(COL_COLLECTION, collection);
+        values.put(COL_ID, id);
+        values.put(COL_VERSION, version);
+        values.put(COL_DATA, data);
+        return values;
+    }
+
+    private static JsonObject decode(String data) {
+        try {
+            return JsonObject.decode(data);
+        } catch (JsonException e) {
+            Logger.warn(e, "Discarding corrupted local document");
+            return null;
+        }
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class Helper extends SQLiteOpenHelper {
+
+        Helper(Context context) {
+            super(context, DB_NAME, null, DB_VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + DOCUMENTS + " (" +
+                    COL_COLLECTION + " TEXT NOT NULL, " +
+                    COL_ID + " TEXT NOT NULL, " +
+                    COL_VERSION + " INTEGER, " +
+                    COL_DATA + " TEXT NOT NULL, " +
+                    "PRIMARY KEY (" + COL_COLLECTION + ", " + COL_ID + "))");
+            db.execSQL("CREATE TABLE " + COLLECTIONS + " (" +
+                    COL_NAME + " TEXT PRIMARY KEY, " +
+                    COL_SYNCED + " INTEGER)");
+            db.execSQL("CREATE TABLE " + MARKS + " (" +
+                    COL_COLLECTION + " TEXT NOT NULL, " +
+                    COL_FIELD + " TEXT NOT NULL, " +
+                    COL_MARK + " TEXT, " +
+                    "PRIMARY KEY (" + COL_COLLECTION + ", " + COL_FIELD + "))");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            db.execSQL("DROP TABLE IF EXISTS " + DOCUMENTS);
+            db.execSQL("DROP TABLE IF EXISTS " + COLLECTIONS);
+            db.execSQL("DROP TABLE IF EXISTS " + MARKS);
+            onCreate(db);
+        }
+    }
+}
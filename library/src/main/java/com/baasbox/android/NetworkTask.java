@@ -19,11 +19,13 @@ import com.baasbox.android.impl.Logger;
 import com.baasbox.android.impl.Task;
 import com.baasbox.android.json.JsonException;
 import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.JsonSelector;
 import com.baasbox.android.net.HttpRequest;
 import com.baasbox.android.net.HttpResponse;
 
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Created by Andrea Tortorella on 20/01/14.
@@ -31,8 +33,11 @@ import java.io.IOException;
 abstract class NetworkTask<R> extends Task<R> {
 // ------------------------------ FIELDS ------------------------------
 
+    private static final String UTF_8 = "UTF-8";
+
     private final BaasBox box;
     private boolean retryOnFailedLogin;
+    private int attempts;
 
 // --------------------------- CONSTRUCTORS ---------------------------
     protected NetworkTask(BaasBox box, int flags, BaasHandler<R> handler) {
@@ -69,6 +74,7 @@ abstract class NetworkTask<R> extends Task<R> {
             if (retryOnFailedLogin) {
                 retryOnFailedLogin = false;
                 if (attemptRefreshToken(box)) {
+                    traceRetry();
                     return asyncCall();
                 } else {
                     throw e;
@@ -79,6 +85,25 @@ abstract class NetworkTask<R> extends Task<R> {
         }
     }
 
+    /**
+     * Returns true if the result of this task reads the response body after
+     * it has been parsed, otherwise the body is closed once the response is parsed.
+     */
+    protected boolean keepsEntity() {
+        return false;
+    }
+
+    private static void closeEntity(HttpResponse response) {
+        HttpResponse.Body entity = response.getEntity();
+        if (entity != null) {
+            try {
+                entity.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+
     protected R onContinue(int status, HttpResponse response, BaasBox box) throws BaasException {
         throw new BaasException("unexpected status " + status);
     }
@@ -97,9 +122,49 @@ abstract class NetworkTask<R> extends Task<R> {
         throw new BaasClientException(status, json);
     }
 
+    private static byte[] readFully(InputStream in, long length) throws IOException {
+        DyanmicByteArrayOutputStream out = length > 0 && length < Integer.MAX_VALUE
+                ? new DyanmicByteArrayOutputStream((int) length)
+                : new DyanmicByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return out.data();
+    }
+
     protected static JsonObject parseJson(HttpResponse response, BaasBox box) throws BaasException {
+        return parseJson(response, box, null);
+    }
+
+    /**
+     * Parses the response skipping the fields not chosen by <code>selector</code>
+     */
+    protected static JsonObject parseJson(HttpResponse response, BaasBox box, JsonSelector selector) throws BaasException {
         HttpResponse.Body entity = response.getEntity();
-        if (entity != null) {
+        if (entity != null && UTF_8.equalsIgnoreCase(box.config.httpCharset)) {
+            try {
+                InputStream in = entity.getContent();
+                if (in == null) {
+                    return new JsonObject();
+                } else if (box.config.lazyJson) {
+                    return JsonObject.decodeLazy(readFully(in, entity.contentLength()), selector);
+                } else {
+                    return JsonObject.decode(in, selector);
+                }
+            } catch (IOException e) {
+                throw new BaasIOException("Could not parse server response", e);
+            } catch (JsonException e) {
+                throw new BaasIOException("Could not parse server response: " + response, e);
+            } finally {
+                try {
+                    entity.close();
+                } catch (IOException e) {
+                    // ignored
+                }
+            }
+        } else if (entity != null) {
             String content = null;
             try {
                 JsonObject decoded;
@@ -107,7 +172,7 @@ abstract class NetworkTask<R> extends Task<R> {
                 if (content == null) {
                     decoded = new JsonObject();
                 } else {
-                    decoded = JsonObject.decode(content);
+                    decoded = JsonObject.decode(content, selector);
                 }
                 return decoded;
             } catch (IOException e) {
@@ -137,6 +202,9 @@ abstract class NetworkTask<R> extends Task<R> {
 
     @Override
     protected R asyncCall() throws BaasException {
+        final boolean traced = isTraced();
+        final int attempt = ++attempts;
+        long start = traced ? System.nanoTime() : 0;
         HttpRequest request = request(box);
         if (request == null) {
             return onSkipRequest();
@@ -145,9 +213,46 @@ abstract class NetworkTask<R> extends Task<R> {
         if (val != null) {
             return val;
         }
-        Logger.info("requested %s", request);
+        Logger.debug("requested %s", request);
+        if (traced) {
+            long now = System.nanoTime();
+            traceRequest(request.url, contentLength(request), now - start);
+            start = now;
+        }
         HttpResponse response = box.restClient.execute(request);
-        return parseResponse(response, box);
+        if (traced) {
+            long now = System.nanoTime();
+            HttpResponse.Body entity = response.getEntity();
+            traceResponse(response.getStatusCode(), String.valueOf(response.getVersion()),
+                    response.isConnectionReused(), entity == null ? -1 : entity.contentLength(), now - start);
+            start = now;
+        }
+        R parsed;
+        try {
+            parsed = parseResponse(response, box);
+        } finally {
+            if (!keepsEntity()) {
+                // returns the connection to the pool even if the body was not read
+                closeEntity(response);
+            }
+        }
+        if (traced && attempt == attempts) {
+            // a retried request has already recorded its own phases
+            traceParse(System.nanoTime() - start);
+        }
+        return parsed;
+    }
+
+    private static long contentLength(HttpRequest request) {
+        String length = request.headers.get(RequestFactory.CONTENT_LENGTH);
+        if (length == null) {
+            return request.body == null ? 0 : -1;
+        }
+        try {
+            return Long.parseLong(length);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     protected abstract HttpRequest request(BaasBox box);
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.baasbox.android.impl.Constants;
+import com.baasbox.android.impl.Logger;
+import com.baasbox.android.impl.Task;
+import com.baasbox.android.json.JsonException;
+import com.baasbox.android.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durable queue of document writes that have been acknowledged
+ * locally but not yet delivered to the server.
+ * Writes are delivered in order by a low priority task, one request each
+ * since the server has no batch endpoint; when the
+ * server cannot be reached delivery is retried with exponential backoff.
+ *
+ * The database is created by the first queued write and is only touched
+ * on a background thread: callers just take a snapshot of the document.
+ */
+final class Outbox {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String DB_NAME = "baasbox-outbox.db";
+    private static final int DB_VERSION = 1;
+
+    private static final String WRITES = "writes";
+    private static final String REFS = "refs";
+
+    private static final String COL_SEQ = "seq";
+    private static final String COL_OP = "op";
+    private static final String COL_COLLECTION = "collection";
+    private static final String COL_ID = "id";
+    private static final String COL_REF = "ref";
+    private static final String COL_MODE = "mode";
+    private static final String COL_DATA = "data";
+
+    private static final int OP_SAVE = 0;
+    private static final int OP_DELETE = 1;
+
+    // entries read from the database at a time
+    private static final int PAGE_SIZE = 16;
+    private static final long MIN_BACKOFF = 1000;
+    private static final long MAX_BACKOFF = 5 * 60 * 1000;
+
+    private static final String[] COLUMNS = {COL_SEQ, COL_OP, COL_COLLECTION, COL_ID, COL_REF, COL_MODE, COL_DATA};
+
+    private final BaasBox box;
+    private final Context mContext;
+    private final Handler mHandler;
+    // serializes the writes to the database in the order they are queued
+    private final ThreadPoolExecutor mIo =
+            new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    private Helper mHelper;
+    private final AtomicBoolean mFlushing = new AtomicBoolean(false);
+    private volatile boolean mDirty;
+    private int mFailures;
+
+    private final Runnable mRetry = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    Outbox(BaasBox box, Context context) {
+        this.box = box;
+        this.mContext = context.getApplicationContext();
+        this.mHandler = new Handler(Looper.getMainLooper());
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Resumes the delivery of the writes queued by a previous run,
+     * without creating the database if nothing was ever queued.
+     */
+    void resume() {
+        mIo.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (exists()) {
+                    flush();
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues a save of the current state of <code>doc</code>.
+     * A pending save of the same document is superseded by this one.
+     * The snapshot also replaces the copy in the local store, if any.
+     */
+    void enqueueSave(BaasDocument doc, final SaveMode mode) {
+        final String collection = doc.getCollection();
+        final String docId = doc.getId();
+        final long version = doc.getVersion();
+        String docRef = doc.outboxRef();
+        if (docId == null && docRef == null) {
+            docRef = UUID.randomUUID().toString();
+            doc.bindOutbox(docRef, null);
+        }
+        final String ref = docRef;
+        final String data = doc.toJson().toString();
+        mIo.execute(new Runnable() {
+            @Override
+            public void run() {
+                SQLiteDatabase db = helper().getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    String id = resolve(db, docId, ref);
+                    if (id != null) {
+                        db.delete(WRITES, COL_OP + "=" + OP_SAVE + " AND " + COL_COLLECTION + "=? AND " + COL_ID + "=?",
+                                new String[]{collection, id});
+                    } else {
+                        db.delete(WRITES, COL_OP + "=" + OP_SAVE + " AND " + COL_REF + "=?", new String[]{ref});
+                    }
+                    ContentValues values = new ContentValues();
+                    values.put(COL_OP, OP_SAVE);
+                    values.put(COL_COLLECTION, collection);
+                    values.put(COL_ID, id);
+                    values.put(COL_REF, ref);
+                    values.put(COL_MODE, mode.ordinal());
+                    values.put(COL_DATA, data);
+                    db.insert(WRITES, null, values);
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                if (docId != null && box.mLocalStore != null) {
+                    box.mLocalStore.put(collection, docId, version, data);
+                }
+                flush();
+            }
+        });
+    }
+
+    /**
+     * Queues a delete of <code>doc</code>, discarding any pending save
+     * and the copy in the local store, if any.
+     * If the document has never reached the server nothing is sent.
+     */
+    void enqueueDelete(BaasDocument doc) {
+        final String collection = doc.getCollection();
+        final String docId = doc.getId();
+        final String ref = doc.outboxRef();
+        mIo.execute(new Runnable() {
+            @Override
+            public void run() {
+                SQLiteDatabase db = helper().getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    String id = resolve(db, docId, ref);
+                    if (id == null) {
+                        if (ref != null) {
+                            db.delete(WRITES, COL_REF + "=?", new String[]{ref});
+                        }
+                    } else {
+                        db.delete(WRITES, COL_OP + "=" + OP_SAVE + " AND " + COL_COLLECTION + "=? AND " + COL_ID + "=?",
+                                new String[]{collection, id});
+                        ContentValues values = new ContentValues();
+                        values.put(COL_OP, OP_DELETE);
+                        values.put(COL_COLLECTION, collection);
+                        values.put(COL_ID, id);
+                        values.put(COL_REF, ref);
+                        db.insert(WRITES, null, values);
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                if (docId != null && box.mLocalStore != null) {
+                    box.mLocalStore.remove(collection, docId);
+                }
+                flush();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of writes waiting to be delivered
+     */
+    int pending() {
+        SQLiteDatabase db = helper().getReadableDatabase();
+        Cursor c = null;
+        try {
+            c = db.rawQuery("SELECT COUNT(*) FROM " + WRITES, null);
+            return c.moveToFirst() ? c.getInt(0) : 0;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    /**
+     * Discards the queued writes, after the ones being queued
+     */
+    void clear() {
+        mIo.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!exists()) {
+                    return;
+                }
+                SQLiteDatabase db = helper().getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    db.delete(WRITES, null, null);
+                    db.delete(REFS, null, null);
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedules delivery of the pending writes, unless a delivery
+     * is already in progress.
+     */
+    void flush() {
+        mDirty = true;
+        if (mFlushing.compareAndSet(false, true)) {
+            mHandler.removeCallbacks(mRetry);
+            box.submitAsync(new Flush(this));
+        }
+    }
+
+    private synchronized Helper helper() {
+        if (mHelper == null) {
+            mHelper = new Helper(mContext);
+        }
+        return mHelper;
+    }
+
+    private synchronized boolean exists() {
+        return mHelper != null || mContext.getDatabasePath(DB_NAME).exists();
+    }
+
+    private static String resolve(SQLiteDatabase db, String id, String ref) {
+        if (id == null && ref != null) {
+            return lookupRef(db, ref);
+        }
+        return id;
+    }
+
+    private static String lookupRef(SQLiteDatabase db, String ref) {
+        Cursor c = null;
+        try {
+            c = db.query(REFS, new String[]{COL_ID}, COL_REF + "=?", new String[]{ref}, null, null, null);
+            return c.moveToFirst() ? c.getString(0) : null;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    private static boolean hasWrites(SQLiteDatabase db, String ref) {
+        Cursor c = null;
+        try {
+            c = db.query(WRITES, new String[]{COL_SEQ}, COL_REF + "=?", new String[]{ref}, null, null, null, "1");
+            return c.moveToFirst();
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    private List<Entry> peek() {
+        SQLiteDatabase db = helper().getReadableDatabase();
+        Cursor c = null;
+        try {
+            c = db.query(WRITES, COLUMNS, null, null, null, null, COL_SEQ, Integer.toString(PAGE_SIZE));
+            List<Entry> entries = new ArrayList<Entry>(c.getCount());
+            while (c.moveToNext()) {
+                Entry e = new Entry();
+                e.seq = c.getLong(0);
+                e.op = c.getInt(1);
+                e.collection = c.getString(2);
+                e.id = c.isNull(3) ? null : c.getString(3);
+                e.ref = c.isNull(4) ? null : c.getString(4);
+                e.mode = c.isNull(5) ? SaveMode.IGNORE_VERSION : SaveMode.values()[c.getInt(5)];
+                e.data = c.isNull(6) ? null : c.getString(6);
+                if (e.id == null && e.ref != null) {
+                    e.id = lookupRef(db, e.ref);
+                }
+                entries.add(e);
+            }
+            return entries;
+        } finally {
+            if (c != null) c.close();
+        }
+    }
+
+    private void complete(Entry e, String createdId) {
+        SQLiteDatabase db = helper().getWritableDatabase();
+        db.beginTransaction();
+        try {
+            int removed = db.delete(WRITES, COL_SEQ + "=" + e.seq, null);
+            if (createdId != null && e.ref != null) {
+                ContentValues ref = new ContentValues();
+                ref.put(COL_REF, e.ref);
+                ref.put(COL_ID, createdId);
+                db.insertWithOnConflict(REFS, null, ref, SQLiteDatabase.CONFLICT_REPLACE);
+                if (removed == 0 && !hasWrites(db, e.ref)) {
+                    // the document was deleted locally while its creation was in flight
+                    ContentValues values = new ContentValues();
+                    values.put(COL_OP, OP_DELETE);
+                    values.put(COL_COLLECTION, e.collection);
+                    values.put(COL_ID, createdId);
+                    values.put(COL_REF, e.ref);
+                    db.insert(WRITES, null, values);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Delivers queued writes until the outbox is empty or the server
+     * cannot be reached.
+     *
+     * @return true if the outbox has been drained
+     */
+    private boolean drain() {
+        for (; ; ) {
+            mDirty = false;
+            List<Entry> batch = peek();
+            if (batch.isEmpty()) {
+                return true;
+            }
+            for (Entry e : batch) {
+                final BaasDocument doc = e.document();
+                if (doc == null) {
+                    complete(e, null);
+                    continue;
+                }
+                final boolean deleted = e.op == OP_DELETE;
+                final BaasResult<?> res;
+                if (deleted) {
+                    res = box.submitSync(BaasDocument.deleteTask(box, e.collection, e.id));
+                } else {
+                    res = box.submitSync(BaasDocument.saveTask(box, doc, e.mode));
+                }
+                if (res.isSuccess()) {
+                    complete(e, e.id == null ? doc.getId() : null);
+                    notifyWritten(doc, deleted);
+                } else {
+                    BaasException error = res.error();
+                    if (isTransient(error)) {
+                        // counting the pending writes queries the database
+                        if (Logger.isLoggable(LogSink.INFO)) {
+                            Logger.info(error, "Outbox delivery interrupted, %d writes pending", pending());
+                        }
+                        return false;
+                    }
+                    Logger.warn(error, "Write rejected by the server, dropping it");
+                    complete(e, null);
+                    notifyRejected(doc, deleted, error);
+                }
+            }
+        }
+    }
+
+    private static boolean isTransient(BaasException error) {
+        return error instanceof BaasIOException ||
+               error instanceof BaasServerException ||
+               error instanceof BaasInvalidSessionException;
+    }
+
+    private void notifyWritten(final BaasDocument doc, final boolean deleted) {
+        final OutboxListener listener = box.config.outboxListener;
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onWritten(doc, deleted);
+            }
+        });
+    }
+
+    private void notifyRejected(final BaasDocument doc, final boolean deleted, final BaasException error) {
+        final OutboxListener listener = box.config.outboxListener;
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onRejected(doc, deleted, error);
+            }
+        });
+    }
+
+    private void finishFlush(boolean drained) {
+        long delay;
+        synchronized (this) {
+            if (drained) {
+                mFailures = 0;
+                delay = -1;
+            } else {
+                delay = Math.min(MAX_BACKOFF, MIN_BACKOFF << Math.min(mFailures, 16));
+                mFailures++;
+            }
+        }
+        mFlushing.set(false);
+        if (delay >= 0) {
+            mHandler.postDelayed(mRetry, delay);
+        } else if (mDirty) {
+            flush();
+        }
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class Entry {
+        long seq;
+        int op;
+        String collection;
+        String id;
+        String ref;
+        SaveMode mode;
+        String data;
+
+        BaasDocument document() {
+            JsonObject json;
+            if (data == null) {
+                json = new JsonObject();
+            } else {
+                try {
+                    json = JsonObject.decode(data);
+                } catch (JsonException ex) {
+                    Logger.warn(ex, "Discarding corrupted outbox entry");
+                    return null;
+                }
+            }
+            json.put("@class", collection);
+            json.put("id", id);
+            if (!json.contains("@version")) {
+                json.put("@version", 0L);
+            }
+            return new BaasDocument(json);
+        }
+    }
+
+    private static final class Flush extends Task<Void> {
+        private final Outbox outbox;
+
+        Flush(Outbox outbox) {
+            super(Constants.PRIORITY_LOW, null);
+            this.outbox = outbox;
+        }
+
+        @Override
+        protected Void asyncCall() throws BaasException {
+            boolean drained = false;
+            try {
+                drained = outbox.drain();
+            } finally {
+                outbox.finishFlush(drained);
+            }
+            return null;
+        }
+    }
+
+    private static final class Helper extends SQLiteOpenHelper {
+
+        Helper(Context context) {
+            super(context, DB_NAME, null, DB_VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + WRITES + " (" +
+                    COL_SEQ + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COL_OP + " INTEGER NOT NULL, " +
+                    COL_COLLECTION + " TEXT NOT NULL, " +
+                    COL_ID + " TEXT, " +
+                    COL_REF + " TEXT, " +
+                    COL_MODE + " INTEGER, " +
+                    COL_DATA + " TEXT)");
+            db.execSQL("CREATE TABLE " + REFS + " (" +
+                    COL_REF + " TEXT PRIMARY KEY, " +
+                    COL_ID + " TEXT NOT NULL)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            db.execSQL("DROP TABLE IF EXISTS " + WRITES);
+            db.execSQL("DROP TABLE IF EXISTS " + REFS);
+            onCreate(db);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+/**
+ * Receives the outcome of writes queued through
+ * {@link BaasDocument#saveLater(SaveMode)} and {@link BaasDocument#deleteLater()}
+ * once they are delivered to the server.
+ * Callbacks are invoked on the main thread.
+ */
+public interface OutboxListener {
+// ------------------------------ FIELDS ------------------------------
+
+    OutboxListener NOOP = new OutboxListener() {
+        @Override
+        public void onWritten(BaasDocument document, boolean deleted) {
+        }
+
+        @Override
+        public void onRejected(BaasDocument document, boolean deleted, BaasException error) {
+        }
+    };
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Invoked when a queued write has been applied on the server.
+     *
+     * @param document the document as returned by the server, or the deleted document
+     * @param deleted true if the write was a delete
+     */
+    void onWritten(BaasDocument document, boolean deleted);
+
+    /**
+     * Invoked when the server refused a queued write, for instance because
+     * a save with {@link SaveMode#CHECK_VERSION} found a newer version on the server.
+     * Rejected writes are dropped from the outbox.
+     *
+     * @param document the local document that was refused
+     * @param deleted true if the write was a delete
+     * @param error the error returned by the server
+     */
+    void onRejected(BaasDocument document, boolean deleted, BaasException error);
+}
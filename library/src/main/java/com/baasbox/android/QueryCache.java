@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android;
+
+import android.os.SystemClock;
+
+import com.baasbox.android.json.JsonArray;
+import com.baasbox.android.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In memory cache of the results of collection queries.
+ * Entries are keyed by the collection and the normalized query parameters,
+ * expire after a fixed time, and are evicted in least recently used order
+ * once their estimated size exceeds the budget.
+ * Results are copied in and out, so callers are free to modify them.
+ */
+final class QueryCache {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final Comparator<RequestFactory.Param> BY_NAME = new Comparator<RequestFactory.Param>() {
+        @Override
+        public int compare(RequestFactory.Param lhs, RequestFactory.Param rhs) {
+            return lhs.paramName.compareTo(rhs.paramName);
+        }
+    };
+
+    /**
+     * Kind of the documents fetched with their full metadata
+     */
+    static final String FETCH = "fetch";
+
+    /**
+     * Kind of the raw query results, stripped of the record ids
+     */
+    static final String QUERY = "query";
+
+    private final long mMaxBytes;
+    private final long mTtl;
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long mBytes;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    QueryCache(long maxBytes, long ttlMillis) {
+        this.mMaxBytes = maxBytes;
+        this.mTtl = ttlMillis;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Returns the canonical key of a query of type <code>kind</code> on <code>collection</code>:
+     * parameters are ordered by name, while the relative order of
+     * repeated parameters, such as positional where params, is preserved.
+     * Every component is prefixed by its length, so distinct queries
+     * cannot map to the same key whatever their values contain.
+     *
+     * @param kind one of {@link #FETCH} and {@link #QUERY}, requests of different kinds
+     *             cache differently shaped results
+     */
+    static String key(String kind, String collection, RequestFactory.Param[] params) {
+        StringBuilder sb = new StringBuilder(kind);
+        append(sb, collection);
+        if (params != null && params.length > 0) {
+            RequestFactory.Param[] sorted = params.clone();
+            Arrays.sort(sorted, BY_NAME);
+            for (RequestFactory.Param p : sorted) {
+                append(sb, p.paramName);
+                append(sb, p.paramValue);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String part) {
+        if (part == null) {
+            sb.append(":-");
+        } else {
+            sb.append(':').append(part.length()).append(':').append(part);
+        }
+    }
+
+    private static long sizeOf(Object value) {
+        if (value instanceof JsonObject) {
+            long size = 32;
+            for (Map.Entry<String, Object> e : (JsonObject) value) {
+                size += 32 + 2 * e.getKey().length() + sizeOf(e.getValue());
+            }
+            return size;
+        } else if (value instanceof JsonArray) {
+            long size = 32;
+            for (Object o : (JsonArray) value) {
+                size += 8 + sizeOf(o);
+            }
+            return size;
+        } else if (value instanceof String) {
+            return 40 + 2 * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else {
+            return 16;
+        }
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns a copy of the cached result for <code>key</code> or null
+     * if it is absent or expired.
+     */
+    synchronized List<JsonObject> get(String key) {
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expires <= SystemClock.elapsedRealtime()) {
+            remove(key);
+            return null;
+        }
+        return copyOf(entry.results);
+    }
+
+    synchronized void put(String collection, String key, List<JsonObject> results) {
+        // sized before copying: walking the copy would hand out its nested
+        // structures, so later copies of it could no longer share them
+        long bytes = 0;
+        for (JsonObject o : results) {
+            bytes += sizeOf(o);
+        }
+        if (bytes > mMaxBytes) {
+            return;
+        }
+        List<JsonObject> copy = copyOf(results);
+        remove(key);
+        mEntries.put(key, new Entry(collection, copy, bytes, SystemClock.elapsedRealtime() + mTtl));
+        mBytes += bytes;
+        trim();
+    }
+
+    /**
+     * Drops every cached result of <code>collection</code>
+     */
+    synchronized void invalidate(String collection) {
+        Iterator<Entry> it = mEntries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (e.collection.equals(collection)) {
+                mBytes -= e.bytes;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        mEntries.clear();
+        mBytes = 0;
+    }
+
+    private void remove(String key) {
+        Entry old = mEntries.remove(key);
+        if (old != null) {
+            mBytes -= old.bytes;
+        }
+    }
+
+    private void trim() {
+        Iterator<Entry> it = mEntries.values().iterator();
+        while (mBytes > mMaxBytes && it.hasNext()) {
+            mBytes -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    private static List<JsonObject> copyOf(List<JsonObject> results) {
+        List<JsonObject> copy = new ArrayList<JsonObject>(results.size());
+        for (JsonObject o : results) {
+            copy.add(o.copy());
+        }
+        return copy;
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class Entry {
+        final String collection;
+        final List<JsonObject> results;
+        final long bytes;
+        final long expires;
+
+        Entry(String collection, List<JsonObject> results, long bytes, long expires) {
+            this.collection = collection;
+            this.results = results;
+            this.bytes = bytes;
+            this.expires = expires;
+        }
+    }
+}
@@ -17,17 +17,17 @@ package com.baasbox.android;
 
 import android.net.Uri;
 
-import com.baasbox.android.impl.Base64;
-import com.baasbox.android.impl.Logger;
+import com.baasbox.android.impl.Requests;
 import com.baasbox.android.json.JsonArray;
 import com.baasbox.android.json.JsonObject;
+import com.baasbox.android.json.JsonStructure;
 import com.baasbox.android.net.HttpRequest;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.*;
 
 /**
@@ -48,6 +48,9 @@ class RequestFactory {
 
     static final String CONTENT_LENGTH = "Content-Length";
 
+    private static final String UTF_8 = "UTF-8";
+    private static final int JSON_BUFFER_SIZE = 512;
+
     private final BaasBox.Config config;
     private final BaasCredentialManager credentials;
     private final String apiRoot;
@@ -57,26 +60,7 @@ class RequestFactory {
         this.config = config;
         this.credentials = credential;
 
-        apiRoot = initApiRoot(config);
-    }
-
-    private static String initApiRoot(BaasBox.Config config) {
-        StringBuilder api = new StringBuilder();
-        api.append(config.useHttps ? "https://" : "http://");
-        api.append(config.apiDomain);
-        api.append(":");
-        api.append(config.httpPort);
-        if (config.apiBasepath == null
-                || config.apiBasepath.length() == 0) {
-            api.append('/');
-        } else if (config.apiBasepath.startsWith("/")) {
-            api.append(config.apiBasepath);
-        } else {
-            api.append('/');
-            api.append(config.apiBasepath);
-        }
-
-        return api.toString();
+        apiRoot = Requests.apiRoot(config.useHttps, config.apiDomain, config.httpPort, config.apiBasepath);
     }
 
 // -------------------------- OTHER METHODS --------------------------
@@ -122,14 +106,9 @@ class RequestFactory {
         InputStream body = null;
         Map<String, String> headers = null;
         if (array != null) {
-            byte[] bytes = null;
-            try {
-                bytes = array.toString().getBytes(config.httpCharset);
-            } catch (UnsupportedEncodingException e) {
-                throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-            }
-            headers = setContentType(headers, config, JSON_CONTENT, bytes.length);
-            body = new ByteArrayInputStream(bytes);
+            DyanmicByteArrayOutputStream bytes = jsonBytes(array);
+            headers = setContentType(headers, config, JSON_CONTENT, bytes.size());
+            body = bytes.asInputStream();
         }
         return post(uri, headers, body);
 
@@ -138,18 +117,34 @@ class RequestFactory {
         InputStream body = null;
         Map<String, String> headers = null;
         if (object != null) {
-            byte[] bytes = null;
-            try {
-                bytes = object.toString().getBytes(config.httpCharset);
-            } catch (UnsupportedEncodingException e) {
-                throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-            }
-            headers = setContentType(headers, config, JSON_CONTENT, bytes.length);
-            body = new ByteArrayInputStream(bytes);
+            DyanmicByteArrayOutputStream bytes = jsonBytes(object);
+            headers = setContentType(headers, config, JSON_CONTENT, bytes.size());
+            body = bytes.asInputStream();
         }
         return post(uri, headers, body);
     }
 
+    /**
+     * Encodes a json body in the configured charset: UTF-8 is written
+     * directly as bytes, other charsets go through the string representation.
+     */
+    private DyanmicByteArrayOutputStream jsonBytes(JsonStructure json) {
+        DyanmicByteArrayOutputStream out = new DyanmicByteArrayOutputStream(JSON_BUFFER_SIZE);
+        try {
+            if (UTF_8.equalsIgnoreCase(config.httpCharset)) {
+                json.encode(out);
+            } else {
+                byte[] bytes = json.toString().getBytes(config.httpCharset);
+                out.write(bytes, 0, bytes.length);
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
+        } catch (IOException e) {
+            throw new BaasRuntimeException(e);
+        }
+        return out;
+    }
+
     private static Map<String, String> setContentType(Map<String, String> headers, BaasBox.Config config, String contentType, int length) {
         headers = headers == null ? new HashMap<String, String>() : headers;
         headers.put(CONTENT_HEADER, contentType + config.httpCharset);
@@ -161,14 +156,9 @@ class RequestFactory {
         InputStream body = null;
         Map<String, String> headers = null;
         if (object != null) {
-            byte[] bytes = null;
-            try {
-                bytes = object.toString().getBytes(config.httpCharset);
-            } catch (UnsupportedEncodingException e) {
-                throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-            }
-            headers = setContentType(headers, config, JSON_CONTENT, bytes.length);
-            body = new ByteArrayInputStream(bytes);
+            DyanmicByteArrayOutputStream bytes = jsonBytes(object);
+            headers = setContentType(headers, config, JSON_CONTENT, bytes.size());
+            body = bytes.asInputStream();
         }
         return put(uri, headers, body);
     }
@@ -177,14 +167,9 @@ class RequestFactory {
         InputStream body = null;
         Map<String, String> headers = null;
         if (object != null) {
-            byte[] bytes = null;
-            try {
-                bytes = object.toString().getBytes(config.httpCharset);
-            } catch (UnsupportedEncodingException e) {
-                throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-            }
-            headers = setContentType(headers, config, JSON_CONTENT, bytes.length);
-            body = new ByteArrayInputStream(bytes);
+            DyanmicByteArrayOutputStream bytes = jsonBytes(object);
+            headers = setContentType(headers, config, JSON_CONTENT, bytes.size());
+            body = bytes.asInputStream();
         }
         return put(uri, headers, body);
     }
@@ -197,14 +182,9 @@ class RequestFactory {
         InputStream body = null;
         Map<String, String> headers = null;
         if (array != null) {
-            byte[] bytes = null;
-            try {
-                bytes = array.toString().getBytes(config.httpCharset);
-            } catch (UnsupportedEncodingException e) {
-                throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-            }
-            headers = setContentType(headers, config, JSON_CONTENT, bytes.length);
-            body = new ByteArrayInputStream(bytes);
+            DyanmicByteArrayOutputStream bytes = jsonBytes(array);
+            headers = setContentType(headers, config, JSON_CONTENT, bytes.size());
+            body = bytes.asInputStream();
         }
         return delete(uri, headers, body);
 
@@ -213,14 +193,9 @@ class RequestFactory {
         InputStream body = null;
         Map<String, String> headers = null;
         if (object != null) {
-            byte[] bytes = null;
-            try {
-                bytes = object.toString().getBytes(config.httpCharset);
-            } catch (UnsupportedEncodingException e) {
-                throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-            }
-            headers = setContentType(headers, config, JSON_CONTENT, bytes.length);
-            body = new ByteArrayInputStream(bytes);
+            DyanmicByteArrayOutputStream bytes = jsonBytes(object);
+            headers = setContentType(headers, config, JSON_CONTENT, bytes.size());
+            body = bytes.asInputStream();
         }
         return delete(uri, headers, body);
     }
@@ -258,14 +233,10 @@ class RequestFactory {
         headers.put(APPCODE_HEADER_NAME, config.appCode);
         headers.put(USER_AGENT_HEADER_NAME, USER_AGENT_HEADER);
 
-        Logger.debug("Format %s", credentials);
         if (credentials != null) {
-            Logger.debug("Format2 %s", credentials);
             if(BaasBox.Config.AuthType.BASIC_AUTHENTICATION == config.authenticationType){
                  if (credentials.getName() != null && credentials.getPassword() != null) {
-                        String plain = credentials.getName() + ':' + credentials.getPassword();
-                        String encoded = Base64.encodeToString(plain.getBytes(), Base64.NO_WRAP).trim();
-                        headers.put(BASIC_AUTH_HEADER_NAME, "Basic " + encoded);
+                        headers.put(BASIC_AUTH_HEADER_NAME, Requests.basicAuth(credentials.getName(), credentials.getPassword()));
                     }
             } else {
                     if (credentials.getToken() != null) {
@@ -277,20 +248,11 @@ class RequestFactory {
     }
 
     public static String encodeParams(Map<String, String> formParams, String charset) {
-        try {
-            StringBuilder builder = new StringBuilder();
-            boolean first = true;
-            for (Map.Entry<String, String> p : formParams.entrySet()) {
-                if (first) first = false;
-                else builder.append('&');
-                builder.append(URLEncoder.encode(p.getKey(), charset));
-                builder.append("=");
-                builder.append(URLEncoder.encode(p.getValue(), charset));
-            }
-            return builder.toString();
-        } catch (UnsupportedEncodingException e) {
-            throw new BaasRuntimeException("Charset "+charset+" is not supported",e);
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> p : formParams.entrySet()) {
+            Requests.appendParam(builder, p.getKey(), p.getValue(), charset);
         }
+        return builder.toString();
     }
 
     public HttpRequest get(String endpoint, Param... params) {
@@ -311,22 +273,11 @@ class RequestFactory {
     }
 
     public static String encodeQueryParams(Param[] params, String charset) {
-        try {
-            StringBuilder sb = new StringBuilder();
-            boolean first = true;
-            for (Param param : params) {
-                if (first) first = false;
-                else sb.append('&');
-                sb.append(URLEncoder.encode(param.paramName, charset));
-                sb.append('=');
-                if (param.paramValue != null) {
-                    sb.append(URLEncoder.encode(param.paramValue, charset));
-                }
-            }
-            return sb.toString();
-        } catch (UnsupportedEncodingException e) {
-            throw new BaasRuntimeException("Charset "+charset+" is not supported",e);
+        StringBuilder sb = new StringBuilder();
+        for (Param param : params) {
+            Requests.appendParam(sb, param.paramName, param.paramValue, charset);
         }
+        return sb.toString();
     }
 
     public String getEndpointRaw(String endpoint){
@@ -337,11 +288,7 @@ class RequestFactory {
     }
 
     public String getEndpoint(String endpointPattern, Object... params) {
-        if (params != null) {
-            for (Object param : params)
-                endpointPattern = endpointPattern.replaceFirst("\\{\\}", param.toString());
-        }
-        return this.apiRoot + endpointPattern;
+        return Requests.endpoint(this.apiRoot, endpointPattern, params);
     }
 
     public HttpRequest post(String uri) {
@@ -429,11 +376,7 @@ class RequestFactory {
     }
 
     private InputStream jsonInputStream(JsonObject object, String charset) {
-        try {
-            return new ByteArrayInputStream(object.toString().getBytes(charset));
-        } catch (UnsupportedEncodingException e) {
-            throw new BaasRuntimeException("Charset "+config.httpCharset+" is not supported",e);
-        }
+        return jsonBytes(object).asInputStream();
     }
 
     private InputStream trail(String boundary, BaasBox.Config config) {
@@ -41,6 +41,17 @@ public final class RequestOptions {
      */
     public static final int PRIORITY_HIGH=Constants.PRIORITY_HIGH;
 
+    /**
+     * Serves the request from the local document store, when the data is
+     * available there, and reconciles the local copy with the server in background.
+     * The reconciliation only updates the local store: the documents delivered
+     * to the caller are not changed nor delivered again, later requests see the
+     * reconciled data. At most one reconciliation per document or collection runs at a time.
+     * Has no effect unless the local store is enabled through
+     * {@link com.baasbox.android.BaasBox.Builder#setLocalStoreEnabled(boolean)}
+     */
+    public static final int LOCAL_FIRST = Constants.LOCAL_FIRST;
+
     /**
      * The set of defaults flags for a request.
      */
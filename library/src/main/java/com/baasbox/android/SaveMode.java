@@ -34,4 +34,16 @@ public enum SaveMode {
      * and an error is returned instead
      */
     CHECK_VERSION,
+
+    /**
+     * Sends only the field changed since the document
+     * was last fetched or saved, with a field level update
+     * that ignores the version.
+     * When more than one field changed, or fields were removed,
+     * the document is updated as a whole checking the version,
+     * as with {@link #CHECK_VERSION}.
+     * Documents that were never saved, and saves that set an acl,
+     * are updated as a whole ignoring the version.
+     */
+    PARTIAL,
 }
@@ -54,6 +54,12 @@ class StreamRequest extends NetworkTask<BaasStream> {
         return box.mCache.getStream(id);
     }
 
+    @Override
+    protected boolean keepsEntity() {
+        // the body is read through the returned stream
+        return true;
+    }
+
     @Override
     protected BaasStream onOk(int status, HttpResponse response, BaasBox box) throws BaasException {
         boolean close = true;
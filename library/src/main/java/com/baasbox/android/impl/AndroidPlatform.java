@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.impl;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Callbacks are delivered on the looper of the thread that
+ * submitted the request, or on the main thread if it has none.
+ * Loaded reflectively by {@link Platform}.
+ */
+public final class AndroidPlatform extends Platform {
+// ------------------------------ FIELDS ------------------------------
+
+    private final Executor mainExecutor = new LooperExecutor(Looper.getMainLooper());
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    public Executor callbackExecutor() {
+        Looper looper = Looper.myLooper();
+        if (looper == Looper.getMainLooper() || looper == null) {
+            return mainExecutor;
+        }
+        return new LooperExecutor(looper);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    @Override
+    public boolean isLoggable(int level) {
+        return Log.isLoggable(Logger.TAG, level);
+    }
+
+    @Override
+    public void log(int level, String tag, String message, Throwable t) {
+        if (t == null) {
+            Log.println(level, tag, message);
+        } else {
+            Log.println(level, tag, message + '\n' + Log.getStackTraceString(t));
+        }
+    }
+
+    @Override
+    public void setBackgroundPriority() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class LooperExecutor implements Executor {
+        private final Handler handler;
+
+        LooperExecutor(Looper looper) {
+            this.handler = new Handler(looper);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Insertion ordered map backing {@link JsonObject}.
+ * Keys and values are kept in two parallel arrays: small maps are
+ * searched with a linear scan, larger ones build an open addressing
+ * index of slots with linear probing.
+ * Compared to a {@link java.util.LinkedHashMap} there is no per entry allocation.
+ * Values of lazily decoded objects are held as {@link RawJson} slices
+ * and decoded in place the first time they are read.
+ * Copies made through {@link #share()} use the same arrays until one of them
+ * is modified, or until a nested structure is read from it:
+ * only then the arrays are cloned, nested structures being copied on write in turn.
+ * Once a nested structure has been handed out, or put, it can be modified
+ * through references the map does not know of, so such a map is copied
+ * eagerly, one level at a time, instead of being shared.
+ *
+ * The arrays of a shared map are never written again, so maps sharing them,
+ * including nested maps reachable from several copies, can be read
+ * and copied from different threads.
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+// ------------------------------ FIELDS ------------------------------
+
+    /**
+     * Maps up to this size are searched linearly
+     */
+    static final int LINEAR_LIMIT = 8;
+
+    private static final int MIN_CAPACITY = 4;
+    private static final String[] NO_KEYS = new String[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+    // slot + 1 of each key, 0 marks an empty bucket
+    private int[] index;
+    private int modCount;
+    private EntrySet entrySet;
+    // set once the arrays are used by another map as well,
+    // it may be set by any thread copying a structure this map is nested in
+    private volatile boolean shared;
+    // true if a nested structure of this map may be referenced from outside
+    private boolean escaped;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    CompactMap() {
+        keys = NO_KEYS;
+        values = NO_VALUES;
+    }
+
+    CompactMap(int capacity) {
+        if (capacity <= 0) {
+            keys = NO_KEYS;
+            values = NO_VALUES;
+        } else {
+            keys = new String[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    private CompactMap(CompactMap other) {
+        keys = other.keys;
+        values = other.values;
+        size = other.size;
+        index = other.index;
+        shared = true;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean same(Object a, Object b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : handOut(valueAt(slot));
+    }
+
+    /**
+     * Returns a copy of this map that shares its arrays, or that owns
+     * copies of the nested structures if they may be referenced from outside.
+     * Only reads this map.
+     */
+    CompactMap share() {
+        if (escaped) {
+            CompactMap copy = new CompactMap(Math.max(size, MIN_CAPACITY));
+            System.arraycopy(keys, 0, copy.keys, 0, size);
+            for (int i = 0; i < size; i++) {
+                copy.values[i] = JsonStructure.copyOf(values[i]);
+            }
+            copy.size = size;
+            copy.index = index == null ? null : index.clone();
+            return copy;
+        }
+        shared = true;
+        return new CompactMap(this);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (JsonStructure.isAliasable(value)) {
+            escaped = true;
+        }
+        return adopt(key, value);
+    }
+
+    /**
+     * Maps a value no one else references, such as a freshly decoded structure,
+     * without giving up sharing this map
+     */
+    Object adopt(String key, Object value) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            Object old = valueAt(slot);
+            own();
+            values[slot] = value;
+            return old;
+        }
+        own();
+        if (size == keys.length) {
+            grow();
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        modCount++;
+        if (index != null) {
+            insertIndex(size - 1);
+        } else if (size > LINEAR_LIMIT) {
+            rebuildIndex();
+        }
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        Object old = valueAt(slot);
+        own();
+        removeSlot(slot);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            shared = false;
+            keys = NO_KEYS;
+            values = NO_VALUES;
+        } else {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+        }
+        size = 0;
+        index = null;
+        escaped = false;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        EntrySet es = entrySet;
+        return es == null ? (entrySet = new EntrySet()) : es;
+    }
+
+    String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the value mapped to <code>key</code> for reading only,
+     * see {@link #peekAt(int)}
+     */
+    Object peek(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : peekAt(slot);
+    }
+
+    /**
+     * True if this map and <code>other</code> are copies still sharing their content
+     */
+    boolean sharesWith(CompactMap other) {
+        return this != other && values == other.values && size == other.size;
+    }
+
+    /**
+     * Returns the value at <code>slot</code> for reading only, without
+     * unsharing the arrays: undecoded values are decoded but not stored,
+     * since this map may be nested in copies read by other threads
+     */
+    Object peekAt(int slot) {
+        Object v = values[slot];
+        if (v instanceof RawJson) {
+            v = ((RawJson) v).materialize();
+        }
+        return v;
+    }
+
+    private Object valueAt(int slot) {
+        Object v = values[slot];
+        if (shared && JsonStructure.isMutable(v)) {
+            own();
+            v = values[slot];
+        }
+        if (v instanceof RawJson) {
+            v = ((RawJson) v).materialize();
+            values[slot] = v;
+        }
+        return v;
+    }
+
+    private Object handOut(Object v) {
+        if (JsonStructure.isAliasable(v)) {
+            escaped = true;
+        }
+        return v;
+    }
+
+    /**
+     * Makes this map the only owner of its arrays, cloning them if they are shared
+     */
+    private void own() {
+        if (!shared) {
+            return;
+        }
+        int capacity = Math.max(keys.length, MIN_CAPACITY);
+        String[] k = Arrays.copyOf(keys, capacity);
+        Object[] v = new Object[capacity];
+        for (int i = 0; i < size; i++) {
+            v[i] = JsonStructure.copyOf(values[i]);
+        }
+        keys = k;
+        values = v;
+        if (index != null) {
+            index = index.clone();
+        }
+        shared = false;
+    }
+
+    private int slotOf(Object key) {
+        if (key == null) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == null) return i;
+            }
+            return -1;
+        }
+        int[] idx = index;
+        if (idx == null) {
+            for (int i = 0; i < size; i++) {
+                String k = keys[i];
+                if (k == key || key.equals(k)) return i;
+            }
+            return -1;
+        }
+        int mask = idx.length - 1;
+        for (int b = hash(key) & mask; ; b = (b + 1) & mask) {
+            int e = idx[b];
+            if (e == 0) return -1;
+            if (key.equals(keys[e - 1])) return e - 1;
+        }
+    }
+
+    private void removeSlot(int slot) {
+        int moved = size - slot - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, slot + 1, keys, slot, moved);
+            System.arraycopy(values, slot + 1, values, slot, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+        if (index != null) {
+            if (size > LINEAR_LIMIT) {
+                rebuildIndex();
+            } else {
+                index = null;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = keys.length < MIN_CAPACITY ? MIN_CAPACITY : keys.length + (keys.length >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private void rebuildIndex() {
+        int buckets = Integer.highestOneBit(Math.max(keys.length, size) * 2 - 1) << 1;
+        index = new int[buckets];
+        for (int i = 0; i < size; i++) {
+            insertIndex(i);
+        }
+    }
+
+    private void insertIndex(int slot) {
+        int[] idx = index;
+        if (size * 2 > idx.length) {
+            rebuildIndex();
+            return;
+        }
+        String key = keys[slot];
+        int mask = idx.length - 1;
+        int b = key == null ? 0 : hash(key) & mask;
+        while (idx[b] != 0) {
+            b = (b + 1) & mask;
+        }
+        idx[b] = slot + 1;
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (next >= size) throw new NoSuchElementException();
+            last = next++;
+            return new SlotEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            own();
+            removeSlot(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class SlotEntry implements Entry<String, Object> {
+        private final int slot;
+        private final String key;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+            this.key = keys[slot];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return handOut(valueAt(slot));
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            if (JsonStructure.isAliasable(value)) {
+                escaped = true;
+            }
+            Object old = valueAt(slot);
+            own();
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return same(key, e.getKey()) && same(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            Object v = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (v == null ? 0 : v.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
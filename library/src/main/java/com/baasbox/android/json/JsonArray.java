@@ -25,7 +25,6 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -56,26 +55,17 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
      * Creates a new empty JsonArray
      */
     public JsonArray() {
-        list = new LinkedList<Object>();
+        list = new JsonList();
+    }
+
+    JsonArray(int capacity) {
+        list = new JsonList(capacity);
     }
 
     JsonArray(Collection<Object> object) {
-        this();
+        this(object.size());
         for (Object o : object) {
-            if (o == null) {
-                list.add(null);
-            } else if (o instanceof JsonArray) {
-                list.add(((JsonArray) o).copy());
-            } else if (o instanceof JsonObject) {
-                list.add(((JsonObject) o).copy());
-            } else if (o instanceof byte[]) {
-                byte[] original = (byte[]) o;
-                byte[] copy = new byte[original.length];
-                System.arraycopy(original, 0, copy, 0, original.length);
-                list.add(copy);
-            } else {
-                list.add(o);
-            }
+            adopt(copyOf(o));
         }
     }
 
@@ -85,28 +75,20 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
     }
 
     JsonArray(JsonArray other) {
-        this();
-        for (Object o : other) {
-            if (o == null) {
-                list.add(null);
-            } else if (o instanceof JsonArray) {
-                list.add(((JsonArray) o).copy());
-            } else if (o instanceof JsonObject) {
-                list.add(((JsonObject) o).copy());
-            } else if (o instanceof byte[]) {
-                byte[] original = (byte[]) o;
-                byte[] copy = new byte[original.length];
-                System.arraycopy(original, 0, copy, 0, original.length);
-                list.add(copy);
-            } else {
-                list.add(o);
+        if (other.list instanceof JsonList) {
+            // copied on write: the content is shared until either array is modified
+            list = ((JsonList) other.list).share();
+        } else {
+            list = new JsonList(other.size());
+            for (Object o : other) {
+                adopt(copyOf(o));
             }
         }
     }
 
     JsonArray(Parcel source) {
         this();
-        source.readList(list, JsonArray.class.getClassLoader());
+        JsonBinary.read(source, this);
     }
 
 // -------------------------- STATIC METHODS --------------------------
@@ -148,7 +130,7 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
         return JsonArray.decodeFully(reader);
     }
 
-    static JsonArray decodeFully(JsonReader r) {
+    static JsonArray decodeFully(JsonSource r) {
         try {
             JsonArray a = JsonArray.decode(r);
             if (r.peek() != JsonToken.END_DOCUMENT) {
@@ -168,7 +150,15 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
         }
     }
 
-    static JsonArray decode(JsonReader reader) {
+    static JsonArray decode(JsonSource reader) {
+        return decode(reader, null);
+    }
+
+    /**
+     * Decodes the next array applying <code>selector</code> to the objects it contains,
+     * a null selector keeps every field
+     */
+    static JsonArray decode(JsonSource reader, JsonSelector selector) {
         try {
             JsonToken tok = reader.peek();
             if (tok != JsonToken.BEGIN_ARRAY) throw new JsonException("expected array");
@@ -202,10 +192,10 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
                         }
                         break;
                     case BEGIN_OBJECT:
-                        arr.add(JsonObject.decode(reader));
+                        arr.adopt(JsonObject.decode(reader, selector));
                         break;
                     case BEGIN_ARRAY:
-                        arr.add(JsonArray.decode(reader));
+                        arr.adopt(JsonArray.decode(reader, selector));
                         break;
                     case END_DOCUMENT:
                     case END_OBJECT:
@@ -216,6 +206,8 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
                 }
             }
             reader.endArray();
+            // arrays decoded from responses are rarely modified: drop the growth slack
+            ((JsonList) arr.list).trimToSize();
             return arr;
         } catch (IOException e) {
             throw new JsonException(e);
@@ -368,7 +360,7 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        dest.writeList(list);
+        JsonBinary.write(dest, this);
     }
 
 // -------------------------- OTHER METHODS --------------------------
@@ -379,6 +371,17 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
 //        return this;
 //    }
 
+    /**
+     * Appends a value no one else references, such as a freshly decoded structure
+     */
+    void adopt(Object value) {
+        if (list instanceof JsonList) {
+            ((JsonList) list).adopt(value);
+        } else {
+            list.add(value);
+        }
+    }
+
     public JsonArray append(JsonArray arr) {
         list.addAll(arr.list);
         return this;
@@ -390,7 +393,9 @@ public class JsonArray extends JsonStructure implements Iterable<Object>, Parcel
 
     void encode(JsonWriter w) throws IOException {
         w.beginArray();
-        for (Object o : list) {
+        for (int i = 0, size = list.size(); i < size; i++) {
+            // read without unsharing copies
+            Object o = list instanceof JsonList ? ((JsonList) list).peek(i) : list.get(i);
             if (o == null) {
                 w.nullValue();
             } else if (o instanceof String) {
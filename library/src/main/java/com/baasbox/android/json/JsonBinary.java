@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import android.os.Parcel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of json structures used to write them to parcels.
+ * Every value starts with a type tag, lengths are varints and each key is
+ * written once per document then referred to by its index.
+ * Strings are stored one char at a time in one to three bytes, so any
+ * string, including unpaired surrogates, survives the round trip.
+ */
+final class JsonBinary {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE = 4;
+    private static final int STRING = 5;
+    private static final int BINARY = 6;
+    private static final int OBJECT = 7;
+    private static final int ARRAY = 8;
+
+    private byte[] buf;
+    private int pos;
+    // encoding: index of the keys written so far
+    private Map<String, Integer> keyIndex;
+    // decoding: keys read so far
+    private List<String> keys;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private JsonBinary(byte[] buf) {
+        this.buf = buf;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    static byte[] encode(JsonStructure json) {
+        JsonBinary out = writer(json);
+        return Arrays.copyOf(out.buf, out.pos);
+    }
+
+    static JsonStructure decode(byte[] bytes) {
+        JsonBinary in = new JsonBinary(bytes);
+        in.keys = new ArrayList<String>();
+        Object v = in.readValue();
+        if (!(v instanceof JsonStructure) || in.pos != bytes.length) {
+            throw new JsonException("invalid binary json");
+        }
+        return (JsonStructure) v;
+    }
+
+    static void write(Parcel dest, JsonStructure json) {
+        JsonBinary out = writer(json);
+        dest.writeByteArray(out.buf, 0, out.pos);
+    }
+
+    /**
+     * Reads the content written by {@link #write(Parcel, JsonStructure)} into <code>into</code>
+     */
+    static void read(Parcel source, JsonStructure into) {
+        byte[] bytes = source.createByteArray();
+        if (bytes == null) {
+            throw new JsonException("invalid binary json");
+        }
+        JsonBinary in = new JsonBinary(bytes);
+        in.keys = new ArrayList<String>();
+        int tag = in.readByte();
+        if (into instanceof JsonObject && tag == OBJECT) {
+            in.readFields((JsonObject) into);
+        } else if (into instanceof JsonArray && tag == ARRAY) {
+            in.readElements((JsonArray) into);
+        } else {
+            throw new JsonException("invalid binary json");
+        }
+    }
+
+    private static JsonBinary writer(JsonStructure json) {
+        JsonBinary out = new JsonBinary(new byte[256]);
+        out.keyIndex = new HashMap<String, Integer>();
+        out.writeValue(json);
+        return out;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    private void writeValue(Object v) {
+        if (v == null) {
+            writeByte(NULL);
+        } else if (v instanceof String) {
+            writeByte(STRING);
+            writeString((String) v);
+        } else if (v instanceof Boolean) {
+            writeByte((Boolean) v ? TRUE : FALSE);
+        } else if (v instanceof Long) {
+            writeByte(LONG);
+            long l = (Long) v;
+            writeVarint((l << 1) ^ (l >> 63));
+        } else if (v instanceof Double) {
+            writeByte(DOUBLE);
+            long bits = Double.doubleToRawLongBits((Double) v);
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (bits >>> shift);
+            }
+        } else if (v instanceof byte[]) {
+            byte[] bytes = (byte[]) v;
+            writeByte(BINARY);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        } else if (v instanceof JsonObject) {
+            writeByte(OBJECT);
+            writeFields((JsonObject) v);
+        } else if (v instanceof JsonArray) {
+            writeByte(ARRAY);
+            writeElements((JsonArray) v);
+        } else {
+            throw new JsonException("Not a valid json value: " + v.getClass());
+        }
+    }
+
+    private void writeFields(JsonObject o) {
+        writeVarint(o.map.size());
+        if (o.map instanceof CompactMap) {
+            // read without unsharing copies
+            CompactMap m = (CompactMap) o.map;
+            for (int i = 0; i < m.size(); i++) {
+                writeKey(m.keyAt(i));
+                writeValue(m.peekAt(i));
+            }
+        } else {
+            for (Map.Entry<String, Object> e : o.map.entrySet()) {
+                writeKey(e.getKey());
+                writeValue(e.getValue());
+            }
+        }
+    }
+
+    private void writeElements(JsonArray a) {
+        int size = a.list.size();
+        writeVarint(size);
+        for (int i = 0; i < size; i++) {
+            writeValue(a.list instanceof JsonList ? ((JsonList) a.list).peek(i) : a.list.get(i));
+        }
+    }
+
+    private void writeKey(String key) {
+        Integer index = keyIndex.get(key);
+        if (index != null) {
+            writeVarint(index + 1);
+        } else {
+            keyIndex.put(key, keyIndex.size());
+            writeVarint(0);
+            writeString(key);
+        }
+    }
+
+    private void writeString(String s) {
+        int length = s.length();
+        writeVarint(length);
+        ensure(length * 3);
+        byte[] b = buf;
+        int p = pos;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xc0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3f));
+            } else {
+                b[p++] = (byte) (0xe0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                b[p++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        pos = p;
+    }
+
+    private void writeVarint(long v) {
+        ensure(10);
+        while ((v & ~0x7fL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+    }
+
+    private void writeByte(int b) {
+        ensure(1);
+        buf[pos++] = (byte) b;
+    }
+
+    private void ensure(int bytes) {
+        if (pos + bytes > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(pos + bytes, buf.length * 2));
+        }
+    }
+
+    private Object readValue() {
+        int tag = readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case LONG:
+                long l = readVarint();
+                return (l >>> 1) ^ -(l & 1);
+            case DOUBLE:
+                check(8);
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits = (bits << 8) | (buf[pos++] & 0xff);
+                }
+                return Double.longBitsToDouble(bits);
+            case STRING:
+                return readString();
+            case BINARY:
+                int length = readLength();
+                check(length);
+                byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+                pos += length;
+                return bytes;
+            case OBJECT:
+                return readFields(null);
+            case ARRAY:
+                return readElements(null);
+            default:
+                throw new JsonException("invalid binary json tag " + tag);
+        }
+    }
+
+    private JsonObject readFields(JsonObject into) {
+        int size = readCount();
+        JsonObject o = into == null ? new JsonObject(size) : into;
+        for (int i = 0; i < size; i++) {
+            String key = readKey();
+            o.adopt(key, readValue());
+        }
+        return o;
+    }
+
+    private JsonArray readElements(JsonArray into) {
+        int size = readCount();
+        JsonArray a = into == null ? new JsonArray(size) : into;
+        for (int i = 0; i < size; i++) {
+            a.adopt(readValue());
+        }
+        return a;
+    }
+
+    private String readKey() {
+        int ref = readLength();
+        if (ref == 0) {
+            String key = readString();
+            keys.add(key);
+            return key;
+        }
+        if (ref > keys.size()) throw new JsonException("invalid binary json key");
+        return keys.get(ref - 1);
+    }
+
+    private String readString() {
+        int length = readCount();
+        char[] chars = new char[length];
+        byte[] b = buf;
+        for (int i = 0; i < length; i++) {
+            check(1);
+            int c = b[pos++] & 0xff;
+            if (c >= 0xe0) {
+                check(2);
+                c = ((c & 0x0f) << 12) | ((b[pos++] & 0x3f) << 6) | (b[pos++] & 0x3f);
+            } else if (c >= 0xc0) {
+                check(1);
+                c = ((c & 0x1f) << 6) | (b[pos++] & 0x3f);
+            }
+            chars[i] = (char) c;
+        }
+        return new String(chars);
+    }
+
+    private int readLength() {
+        long v = readVarint();
+        if (v < 0 || v > Integer.MAX_VALUE) throw new JsonException("invalid binary json length");
+        return (int) v;
+    }
+
+    /**
+     * Reads the number of items that follow, each taking at least one byte
+     */
+    private int readCount() {
+        int count = readLength();
+        if (count > buf.length - pos) throw new JsonException("truncated binary json");
+        return count;
+    }
+
+    private long readVarint() {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            v |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new JsonException("invalid binary json varint");
+    }
+
+    private int readByte() {
+        check(1);
+        return buf[pos++] & 0xff;
+    }
+
+    private void check(int bytes) {
+        if (pos + bytes > buf.length) throw new JsonException("truncated binary json");
+    }
+}
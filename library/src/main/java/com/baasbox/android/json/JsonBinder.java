@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps values of type <code>T</code> to and from json,
+ * reading and writing tokens directly without building {@link JsonObject}s.
+ * <p>
+ * Binders of classes annotated with {@link JsonModel} are generated at compile time
+ * by the baasbox annotation processor and retrieved through {@link #of(Class)};
+ * binders for the basic json types are provided as constants.
+ * Binders are stateless and can be shared between threads.
+ *
+ * @param <T> the bound type
+ */
+public abstract class JsonBinder<T> {
+// ------------------------------ FIELDS ------------------------------
+
+    /**
+     * Suffix of the name of generated binders
+     */
+    public static final String SUFFIX = "$$JsonBinder";
+
+    private static final ConcurrentHashMap<Class<?>, JsonBinder<?>> BINDERS = new ConcurrentHashMap<Class<?>, JsonBinder<?>>();
+
+    public static final JsonBinder<String> STRING = new JsonBinder<String>() {
+        @Override
+        public String read(JsonSource in) throws IOException {
+            switch (in.peek()) {
+                case NULL:
+                    in.nextNull();
+                    return null;
+                case STRING:
+                case NUMBER:
+                    return in.nextString();
+                case BOOLEAN:
+                    return Boolean.toString(in.nextBoolean());
+                default:
+                    throw new JsonException("expected string but was " + in.peek());
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, String value) throws IOException {
+            out.value(value);
+        }
+    };
+
+    public static final JsonBinder<Long> LONG = new JsonBinder<Long>() {
+        @Override
+        public Long read(JsonSource in) throws IOException {
+            String n = nextNumber(in);
+            if (n == null) {
+                return null;
+            }
+            try {
+                return Long.valueOf(n);
+            } catch (NumberFormatException e) {
+                return (long) parseDouble(n);
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, Long value) throws IOException {
+            out.value(value);
+        }
+    };
+
+    public static final JsonBinder<Integer> INTEGER = new JsonBinder<Integer>() {
+        @Override
+        public Integer read(JsonSource in) throws IOException {
+            Long l = LONG.read(in);
+            return l == null ? null : l.intValue();
+        }
+
+        @Override
+        public void write(JsonWriter out, Integer value) throws IOException {
+            out.value(value);
+        }
+    };
+
+    public static final JsonBinder<Double> DOUBLE = new JsonBinder<Double>() {
+        @Override
+        public Double read(JsonSource in) throws IOException {
+            String n = nextNumber(in);
+            return n == null ? null : parseDouble(n);
+        }
+
+        @Override
+        public void write(JsonWriter out, Double value) throws IOException {
+            out.value(value);
+        }
+    };
+
+    public static final JsonBinder<Boolean> BOOLEAN = new JsonBinder<Boolean>() {
+        @Override
+        public Boolean read(JsonSource in) throws IOException {
+            switch (in.peek()) {
+                case NULL:
+                    in.nextNull();
+                    return null;
+                case BOOLEAN:
+                    return in.nextBoolean();
+                case STRING:
+                    return Boolean.valueOf(in.nextString());
+                default:
+                    throw new JsonException("expected boolean but was " + in.peek());
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, Boolean value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(value.booleanValue());
+            }
+        }
+    };
+
+    public static final JsonBinder<JsonObject> OBJECT = new JsonBinder<JsonObject>() {
+        @Override
+        public JsonObject read(JsonSource in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return JsonObject.decode(in);
+        }
+
+        @Override
+        public void write(JsonWriter out, JsonObject value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                value.encode(out);
+            }
+        }
+    };
+
+    public static final JsonBinder<JsonArray> ARRAY = new JsonBinder<JsonArray>() {
+        @Override
+        public JsonArray read(JsonSource in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return JsonArray.decode(in);
+        }
+
+        @Override
+        public void write(JsonWriter out, JsonArray value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                value.encode(out);
+            }
+        }
+    };
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Returns the generated binder of <code>type</code>
+     *
+     * @param type a class annotated with {@link JsonModel}
+     * @param <T>  the bound type
+     * @return the binder of <code>type</code>
+     * @throws com.baasbox.android.json.JsonException if no binder has been generated for <code>type</code>
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonBinder<T> of(Class<T> type) {
+        JsonBinder<?> binder = BINDERS.get(type);
+        if (binder == null) {
+            try {
+                Class<?> generated = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+                binder = (JsonBinder<?>) generated.newInstance();
+            } catch (ClassNotFoundException e) {
+                throw new JsonException("no binder generated for " + type.getName() + ", is it annotated with @JsonModel?", e);
+            } catch (InstantiationException e) {
+                throw new JsonException(e);
+            } catch (IllegalAccessException e) {
+                throw new JsonException(e);
+            }
+            JsonBinder<?> prev = BINDERS.putIfAbsent(type, binder);
+            if (prev != null) {
+                binder = prev;
+            }
+        }
+        return (JsonBinder<T>) binder;
+    }
+
+    /**
+     * Returns a binder of json arrays whose elements are bound by <code>element</code>
+     *
+     * @param element the binder of the elements
+     * @param <E>     the type of the elements
+     * @return a binder of lists
+     */
+    public static <E> JsonBinder<List<E>> listOf(final JsonBinder<E> element) {
+        if (element == null) throw new IllegalArgumentException("element cannot be null");
+        return new JsonBinder<List<E>>() {
+            @Override
+            public List<E> read(JsonSource in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                List<E> list = new ArrayList<E>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    list.add(element.read(in));
+                }
+                in.endArray();
+                return list;
+            }
+
+            @Override
+            public void write(JsonWriter out, List<E> value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginArray();
+                for (E e : value) {
+                    element.write(out, e);
+                }
+                out.endArray();
+            }
+        };
+    }
+
+    private static String nextNumber(JsonSource in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case NUMBER:
+            case STRING:
+                return in.nextString();
+            default:
+                throw new JsonException("expected number but was " + in.peek());
+        }
+    }
+
+    private static double parseDouble(String n) {
+        try {
+            return Double.parseDouble(n);
+        } catch (NumberFormatException e) {
+            throw new JsonException("not a number: " + n, e);
+        }
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Reads the next value of <code>in</code>
+     *
+     * @param in the source of tokens
+     * @return the value read, possibly null
+     * @throws IOException if reading fails
+     */
+    public abstract T read(JsonSource in) throws IOException;
+
+    /**
+     * Writes <code>value</code> to <code>out</code>
+     *
+     * @param out   the writer
+     * @param value the value to write, possibly null
+     * @throws IOException if writing fails
+     */
+    public abstract void write(JsonWriter out, T value) throws IOException;
+
+    /**
+     * Decodes the json string <code>json</code>
+     *
+     * @param json the string to decode
+     * @return the decoded value
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public final T decode(String json) {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        return decodeFully(reader);
+    }
+
+    /**
+     * Decodes the utf-8 encoded json contained in <code>bytes</code>
+     *
+     * @param bytes the bytes to decode
+     * @return the decoded value
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public final T decode(byte[] bytes) {
+        return decodeFully(new JsonUtf8Reader(bytes, 0, bytes.length));
+    }
+
+    /**
+     * Decodes the utf-8 encoded json read from <code>in</code>.
+     * The stream is consumed up to the end of the document and closed.
+     *
+     * @param in the stream to decode
+     * @return the decoded value
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public final T decode(InputStream in) {
+        return decodeFully(new JsonUtf8Reader(in));
+    }
+
+    private T decodeFully(JsonSource r) {
+        try {
+            T value = read(r);
+            if (r.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonException("Not a document");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } catch (IllegalStateException e) {
+            throw new JsonException(e);
+        } finally {
+            try {
+                r.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+
+    /**
+     * Encodes <code>value</code> to a json string
+     *
+     * @param value the value to encode
+     * @return the json representation of <code>value</code>
+     */
+    public final String encode(T value) {
+        StringWriter w = new StringWriter();
+        JsonWriter jw = new JsonWriter(w);
+        try {
+            write(jw, value);
+            jw.flush();
+            return w.toString();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    /**
+     * Encodes <code>value</code> as UTF-8 json directly into <code>out</code>.
+     * The stream is flushed but not closed.
+     *
+     * @param out   the stream to write to
+     * @param value the value to encode
+     * @throws IOException if writing to the stream fails
+     */
+    public final void encode(OutputStream out, T value) throws IOException {
+        JsonWriter jw = new JsonWriter(new Utf8Writer(out));
+        write(jw, value);
+        jw.flush();
+    }
+}
@@ -13,23 +13,22 @@
  * See the License for the specific language governing permissions and limitations under the License.
  */
 
-package com.baasbox.android.impl;
+package com.baasbox.android.json;
 
-import com.baasbox.android.BaasException;
-import com.baasbox.android.BaasResult;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 
 /**
- * Created by eto on 20/01/14.
+ * Binds a field of a {@link JsonModel} to the json property <code>value</code>
+ * instead of the name of the field.
  */
-public final class ImmediateDispatcher {
-// -------------------------- OTHER METHODS --------------------------
-
-    public <R> BaasResult<R> execute(Task<R> request) {
-        try {
-            R r = request.asyncCall();
-            return BaasResult.success(r);
-        } catch (BaasException e) {
-            return BaasResult.failure(e);
-        }
-    }
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface JsonField {
+    /**
+     * The name of the json property
+     */
+    String value();
 }
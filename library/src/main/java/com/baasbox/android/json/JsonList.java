@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Array backed list of the elements of a {@link JsonArray}.
+ * Copies made through {@link #share()} use the same elements until
+ * one of them is modified, or until a nested structure is read from it:
+ * only then the elements are cloned, nested structures being copied on write in turn.
+ * Lists that have handed out, or received, a nested structure are copied
+ * eagerly instead, as it may be modified through outside references.
+ * See {@link CompactMap} for the same scheme.
+ */
+final class JsonList extends AbstractList<Object> implements RandomAccess {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final int MIN_CAPACITY = 4;
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] elements;
+    private int size;
+    // set once the elements are used by another list as well,
+    // it may be set by any thread copying a structure this list is nested in
+    private volatile boolean shared;
+    // true if a nested structure of this list may be referenced from outside
+    private boolean escaped;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    JsonList() {
+        elements = EMPTY;
+    }
+
+    JsonList(int capacity) {
+        elements = capacity <= 0 ? EMPTY : new Object[capacity];
+    }
+
+    private JsonList(Object[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+        this.shared = true;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns a copy of this list that shares its elements, or that owns
+     * copies of the nested structures if they may be referenced from outside.
+     * Only reads this list.
+     */
+    JsonList share() {
+        if (escaped) {
+            JsonList copy = new JsonList(size);
+            for (int i = 0; i < size; i++) {
+                copy.elements[i] = JsonStructure.copyOf(elements[i]);
+            }
+            copy.size = size;
+            return copy;
+        }
+        shared = true;
+        return new JsonList(elements, size);
+    }
+
+    /**
+     * Appends an element no one else references, such as a freshly decoded structure
+     */
+    void adopt(Object element) {
+        own();
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = element;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index);
+        Object o = elements[index];
+        if (JsonStructure.isAliasable(o)) {
+            own();
+            o = elements[index];
+            escaped = true;
+        }
+        return o;
+    }
+
+    /**
+     * Returns the element at <code>index</code> for reading only,
+     * without unsharing the elements
+     */
+    Object peek(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * True if this list and <code>other</code> are copies still sharing their elements
+     */
+    boolean sharesWith(JsonList other) {
+        return this != other && elements == other.elements && size == other.size;
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        checkIndex(index);
+        if (JsonStructure.isAliasable(element)) {
+            escaped = true;
+        }
+        own();
+        Object old = elements[index];
+        elements[index] = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (JsonStructure.isAliasable(element)) {
+            escaped = true;
+        }
+        own();
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        checkIndex(index);
+        own();
+        Object old = elements[index];
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(elements, index + 1, elements, index, moved);
+        }
+        elements[--size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            shared = false;
+            elements = EMPTY;
+        } else {
+            Arrays.fill(elements, 0, size, null);
+        }
+        size = 0;
+        escaped = false;
+        modCount++;
+    }
+
+    void trimToSize() {
+        if (!shared && size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * Makes this list the only owner of its elements, cloning them if they are shared
+     */
+    private void own() {
+        if (!shared) {
+            return;
+        }
+        Object[] copy = new Object[Math.max(size, MIN_CAPACITY)];
+        for (int i = 0; i < size; i++) {
+            copy[i] = JsonStructure.copyOf(elements[i]);
+        }
+        elements = copy;
+        shared = false;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = elements.length < MIN_CAPACITY ? MIN_CAPACITY : elements.length + (elements.length >> 1);
+        elements = Arrays.copyOf(elements, Math.max(capacity, minCapacity));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
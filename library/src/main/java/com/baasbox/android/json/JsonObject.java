@@ -22,12 +22,14 @@ import com.baasbox.android.BaasRuntimeException;
 import com.baasbox.android.impl.Base64;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,7 +51,6 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
             return new JsonObject[size];
         }
     };
-    //todo lazy copying
     //todo choose when to convert binary data to base64
 
     protected Map<String, Object> map;
@@ -59,32 +60,26 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
      * Creates a new JsonObject with no mappings
      */
     public JsonObject() {
-        map = new LinkedHashMap<String, Object>();
+        map = new CompactMap();
+    }
+
+    JsonObject(int capacity) {
+        map = new CompactMap(capacity);
     }
 
     protected JsonObject(Parcel source) {
         this();
-        source.readMap(map, JsonObject.class.getClassLoader());
+        JsonBinary.read(source, this);
     }
 
     protected JsonObject(JsonObject object) {
-        this();
-        for (Map.Entry<String, Object> e : object) {
-            String key = e.getKey();
-            Object v = e.getValue();
-            if (v == null) {
-                map.put(key, null);
-            } else if (v instanceof JsonArray) {
-                map.put(key, ((JsonArray) v).copy());
-            } else if (v instanceof JsonObject) {
-                map.put(key, ((JsonObject) v).copy());
-            } else if (v instanceof byte[]) {
-                byte[] original = (byte[]) v;
-                byte[] copy = new byte[original.length];
-                System.arraycopy(original, 0, copy, 0, original.length);
-                map.put(key, copy);
-            } else {
-                map.put(key, v);
+        if (object.map instanceof CompactMap) {
+            // copied on write: the content is shared until either object is modified
+            map = ((CompactMap) object.map).share();
+        } else {
+            map = new CompactMap(object.size());
+            for (Map.Entry<String, Object> e : object) {
+                adopt(e.getKey(), copyOf(e.getValue()));
             }
         }
     }
@@ -172,9 +167,110 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
         return JsonObject.decodeFully(reader);
     }
 
-    static JsonObject decodeFully(JsonReader r) {
+    /**
+     * Decodes the utf-8 encoded json read from <code>in</code>.
+     * The stream is consumed up to the end of the document and closed.
+     *
+     * @param in the stream to decode
+     * @return a new JsonObject representation of the content
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public static JsonObject decode(InputStream in) {
+        return JsonObject.decodeFully(new JsonUtf8Reader(in));
+    }
+
+    /**
+     * Decodes the utf-8 encoded json contained in <code>bytes</code>.
+     *
+     * @param bytes the bytes to decode
+     * @return a new JsonObject representation of the content
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public static JsonObject decode(byte[] bytes) {
+        return JsonObject.decodeFully(new JsonUtf8Reader(bytes, 0, bytes.length));
+    }
+
+    /**
+     * Lazily decodes the utf-8 encoded json contained in <code>bytes</code>.
+     * Only the names of the fields are read upfront: strings, objects and arrays
+     * are kept as slices of <code>bytes</code> and decoded the first time they are accessed,
+     * nested objects being decoded lazily in turn.
+     * The array is retained by the returned object and must not be modified afterwards.
+     * Since reads may decode values in place, a lazily decoded object must not be
+     * read concurrently from multiple threads.
+     *
+     * @param bytes the bytes to decode
+     * @return a new JsonObject representation of the content
+     * @throws com.baasbox.android.json.JsonException if the document is not well formed,
+     *         errors in nested values are reported when they are decoded
+     */
+    public static JsonObject decodeLazy(byte[] bytes) {
+        return JsonObject.decodeFully(new JsonUtf8Reader(bytes, 0, bytes.length, true));
+    }
+
+    /**
+     * Decodes the <code>json</code> string passed as parameter keeping only
+     * the fields chosen by <code>selector</code>: the others are skipped without being decoded.
+     *
+     * @param json     the string to decode
+     * @param selector the fields to keep, null to keep every field
+     * @return a new JsonObject representation of the selected fields
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing of the string
+     */
+    public static JsonObject decode(String json, JsonSelector selector) {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        return JsonObject.decodeFully(reader, selector);
+    }
+
+    /**
+     * Decodes the utf-8 encoded json read from <code>in</code> keeping only
+     * the fields chosen by <code>selector</code>: the others are skipped without being decoded.
+     * The stream is consumed up to the end of the document and closed.
+     *
+     * @param in       the stream to decode
+     * @param selector the fields to keep, null to keep every field
+     * @return a new JsonObject representation of the selected fields
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public static JsonObject decode(InputStream in, JsonSelector selector) {
+        return JsonObject.decodeFully(new JsonUtf8Reader(in), selector);
+    }
+
+    /**
+     * Decodes the utf-8 encoded json contained in <code>bytes</code> keeping only
+     * the fields chosen by <code>selector</code>: the others are skipped without being decoded.
+     *
+     * @param bytes    the bytes to decode
+     * @param selector the fields to keep, null to keep every field
+     * @return a new JsonObject representation of the selected fields
+     * @throws com.baasbox.android.json.JsonException if an error happens during parsing
+     */
+    public static JsonObject decode(byte[] bytes, JsonSelector selector) {
+        return JsonObject.decodeFully(new JsonUtf8Reader(bytes, 0, bytes.length), selector);
+    }
+
+    /**
+     * Lazily decodes the utf-8 encoded json contained in <code>bytes</code> keeping only
+     * the fields chosen by <code>selector</code>.
+     * See {@link #decodeLazy(byte[])}
+     *
+     * @param bytes    the bytes to decode
+     * @param selector the fields to keep, null to keep every field
+     * @return a new JsonObject representation of the selected fields
+     * @throws com.baasbox.android.json.JsonException if the document is not well formed
+     */
+    public static JsonObject decodeLazy(byte[] bytes, JsonSelector selector) {
+        return JsonObject.decodeFully(new JsonUtf8Reader(bytes, 0, bytes.length, true), selector);
+    }
+
+    static JsonObject decodeFully(JsonSource r) {
+        return decodeFully(r, null);
+    }
+
+    static JsonObject decodeFully(JsonSource r, JsonSelector selector) {
         try {
-            JsonObject a = JsonObject.decode(r);
+            JsonObject a = JsonObject.decode(r, selector);
             if (r.peek() != JsonToken.END_DOCUMENT) {
                 throw new JsonException("Not a document");
             }
@@ -192,19 +288,38 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
         }
     }
 
-    static JsonObject decode(JsonReader reader) {
+    static JsonObject decode(JsonSource reader) {
+        return decode(reader, null);
+    }
+
+    /**
+     * Decodes the next object keeping only the fields chosen by <code>selector</code>,
+     * a null selector keeps every field
+     */
+    static JsonObject decode(JsonSource reader, JsonSelector selector) {
         try {
             JsonToken tok = reader.peek();
             if (tok != JsonToken.BEGIN_OBJECT) throw new JsonException("expected json object");
             reader.beginObject();
             JsonObject o = new JsonObject();
             String propertyName = null;
+            JsonSelector nested = null;
+            JsonSelector selection = selector == null || selector == JsonSelector.ALL ? null : selector;
             while (tok != JsonToken.END_OBJECT) {
                 tok = reader.peek();
                 switch (tok) {
                     case NAME:
                         if (propertyName != null) throw new JsonException("expected name");
                         propertyName = reader.nextName();
+                        if (selection != null) {
+                            nested = selection.select(propertyName);
+                            if (nested == null) {
+                                reader.skipValue();
+                                propertyName = null;
+                            } else if (nested == JsonSelector.ALL) {
+                                nested = null;
+                            }
+                        }
                         break;
                     case NULL:
                         reader.nextNull();
@@ -212,7 +327,9 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
                         propertyName = null;
                         break;
                     case STRING:
-                        o.put(propertyName, reader.nextString());
+                        if (!putRaw(o, propertyName, reader)) {
+                            o.put(propertyName, reader.nextString());
+                        }
                         propertyName = null;
                         break;
                     case BOOLEAN:
@@ -233,11 +350,19 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
                         propertyName = null;
                         break;
                     case BEGIN_ARRAY:
-                        o.put(propertyName, JsonArray.decode(reader));
+                        if (nested != null) {
+                            o.adopt(propertyName, JsonArray.decode(reader, nested));
+                        } else if (!putRaw(o, propertyName, reader)) {
+                            o.adopt(propertyName, JsonArray.decode(reader));
+                        }
                         propertyName = null;
                         break;
                     case BEGIN_OBJECT:
-                        o.put(propertyName, JsonObject.decode(reader));
+                        if (nested != null) {
+                            o.adopt(propertyName, JsonObject.decode(reader, nested));
+                        } else if (!putRaw(o, propertyName, reader)) {
+                            o.adopt(propertyName, JsonObject.decode(reader));
+                        }
                         propertyName = null;
                         break;
                     case END_DOCUMENT:
@@ -254,6 +379,18 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
         }
     }
 
+    private static boolean putRaw(JsonObject o, String name, JsonSource reader) throws IOException {
+        if (!(reader instanceof JsonUtf8Reader)) {
+            return false;
+        }
+        RawJson raw = ((JsonUtf8Reader) reader).nextRaw();
+        if (raw == null) {
+            return false;
+        }
+        o.map.put(name, raw);
+        return true;
+    }
+
     /**
      * Associate <code>name</code> key to the {@link java.lang.String} <code>value</code>
      * in this object.
@@ -434,7 +571,7 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        dest.writeMap(map);
+        JsonBinary.write(dest, this);
     }
 
 // -------------------------- OTHER METHODS --------------------------
@@ -464,33 +601,45 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
 
     void encode(JsonWriter w) throws IOException {
         w.beginObject();
-        for (Map.Entry<String, Object> e : map.entrySet()) {
-            w.name(e.getKey());
-            Object v = e.getValue();
-            if (v == null) {
-                w.nullValue();
-            } else if (v instanceof String) {
-                w.value((String) v);
-            } else if (v instanceof Boolean) {
-                w.value((Boolean) v);
-            } else if (v instanceof Long) {
-                w.value((Long) v);
-            } else if (v instanceof Double) {
-                w.value((Double) v);
-            } else if (v instanceof byte[]) {
-                String encoded = encodeBinary((byte[])v);
-                w.value(encoded);
-            } else if (v instanceof JsonArray) {
-                ((JsonArray) v).encode(w);
-            } else if (v instanceof JsonObject) {
-                ((JsonObject) v).encode(w);
-            } else {
-                throw new BaasRuntimeException("Array contains non json value");
+        if (map instanceof CompactMap) {
+            // read without unsharing copies
+            CompactMap m = (CompactMap) map;
+            for (int i = 0; i < m.size(); i++) {
+                w.name(m.keyAt(i));
+                encodeValue(w, m.peekAt(i));
+            }
+        } else {
+            for (Map.Entry<String, Object> e : map.entrySet()) {
+                w.name(e.getKey());
+                encodeValue(w, e.getValue());
             }
         }
         w.endObject();
     }
 
+    private void encodeValue(JsonWriter w, Object v) throws IOException {
+        if (v == null) {
+            w.nullValue();
+        } else if (v instanceof String) {
+            w.value((String) v);
+        } else if (v instanceof Boolean) {
+            w.value((Boolean) v);
+        } else if (v instanceof Long) {
+            w.value((Long) v);
+        } else if (v instanceof Double) {
+            w.value((Double) v);
+        } else if (v instanceof byte[]) {
+            String encoded = encodeBinary((byte[])v);
+            w.value(encoded);
+        } else if (v instanceof JsonArray) {
+            ((JsonArray) v).encode(w);
+        } else if (v instanceof JsonObject) {
+            ((JsonObject) v).encode(w);
+        } else {
+            throw new BaasRuntimeException("Array contains non json value");
+        }
+    }
+
     public <T> T get(String name) {
         Object o = map.get(name);
         if (o == null) return null;
@@ -915,6 +1064,71 @@ public class JsonObject extends JsonStructure implements Iterable<Map.Entry<Stri
      */
     public Object remove(String name) {
         if (name == null) throw new IllegalArgumentException("name cannot be null");
-        return map.remove(name);
+        Object removed = map.remove(name);
+        onModify();
+        return removed;
+    }
+
+    /**
+     * Returns the names of the fields whose value in this object differs
+     * from the one in <code>base</code>, including fields that are present
+     * in only one of the two.
+     * Copies that have not been modified since they were made are
+     * recognized without comparing their content.
+     *
+     * @param base a non <code>null</code> object to compare with
+     * @return the set of names of the changed fields
+     */
+    public Set<String> changedFields(JsonObject base) {
+        if (base == null) throw new IllegalArgumentException("base cannot be null");
+        Set<String> changed = new LinkedHashSet<String>();
+        if (map instanceof CompactMap && base.map instanceof CompactMap && ((CompactMap) map).sharesWith((CompactMap) base.map)) {
+            return changed;
+        }
+        for (String name : map.keySet()) {
+            if (!base.map.containsKey(name) || !sameValue(peek(name), base.peek(name))) {
+                changed.add(name);
+            }
+        }
+        for (String name : base.map.keySet()) {
+            if (!map.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Maps a value no one else references, such as a freshly decoded structure
+     */
+    void adopt(String name, Object value) {
+        if (map instanceof CompactMap) {
+            ((CompactMap) map).adopt(name, value);
+        } else {
+            map.put(name, value);
+        }
+    }
+
+    private Object peek(String name) {
+        return map instanceof CompactMap ? ((CompactMap) map).peek(name) : map.get(name);
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        if (a instanceof JsonObject && b instanceof JsonObject) {
+            Map<String, Object> x = ((JsonObject) a).map;
+            Map<String, Object> y = ((JsonObject) b).map;
+            if (x instanceof CompactMap && y instanceof CompactMap && ((CompactMap) x).sharesWith((CompactMap) y)) {
+                return true;
+            }
+        } else if (a instanceof JsonArray && b instanceof JsonArray) {
+            List<Object> x = ((JsonArray) a).list;
+            List<Object> y = ((JsonArray) b).list;
+            if (x instanceof JsonList && y instanceof JsonList && ((JsonList) x).sharesWith((JsonList) y)) {
+                return true;
+            }
+        }
+        return a.equals(b);
     }
 }
@@ -16,7 +16,6 @@
 
 package com.baasbox.android.json;
 
-import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
@@ -173,13 +172,15 @@ import java.util.List;
  * <p>Each {@code JsonReader} may be used to read a single JSON stream. Instances
  * of this class are not thread safe.
  */
-final class JsonReader implements Closeable {
+final class JsonReader implements JsonSource {
 // ------------------------------ FIELDS ------------------------------
 
     private static final String TRUE = "true";
     private static final String FALSE = "false";
 
     private final StringPool stringPool = new StringPool();
+    // names are pooled across readers
+    private final StringPool names = StringPool.shared();
 
     /**
      * The input JSON.
@@ -618,12 +619,12 @@ final class JsonReader implements Closeable {
             case '\'':
                 checkLenient(); // fall-through
             case '"':
-                name = nextString((char) quote);
+                name = nextString((char) quote, names);
                 break;
             default:
                 checkLenient();
                 pos--;
-                name = nextLiteral(false);
+                name = nextLiteral(false, names);
                 if (name.length() == 0) {
                     throw syntaxError("Expected name");
                 }
@@ -640,10 +641,11 @@ final class JsonReader implements Closeable {
      * not include it in the returned string.
      *
      * @param quote either ' or ".
+     * @param pool  the pool of the returned string
      * @throws NumberFormatException if any unicode escape sequences are
      *                               malformed.
      */
-    private String nextString(char quote) throws IOException {
+    private String nextString(char quote, StringPool pool) throws IOException {
         StringBuilder builder = null;
         do {
             /* the index of the first character not yet appended to the builder. */
@@ -655,7 +657,7 @@ final class JsonReader implements Closeable {
                     if (skipping) {
                         return "skipped!";
                     } else if (builder == null) {
-                        return stringPool.get(buffer, start, pos - start - 1);
+                        return pool.get(buffer, start, pos - start - 1);
                     } else {
                         builder.append(buffer, start, pos - start - 1);
                         return builder.toString();
@@ -733,8 +735,9 @@ final class JsonReader implements Closeable {
      * @param assignOffsetsOnly true for this method to only set the valuePos
      *                          and valueLength fields and return a null result. This only works if
      *                          the literal is short; a string is returned otherwise.
+     * @param pool              the pool of the returned string
      */
-    private String nextLiteral(boolean assignOffsetsOnly) throws IOException {
+    private String nextLiteral(boolean assignOffsetsOnly, StringPool pool) throws IOException {
         StringBuilder builder = null;
         valuePos = -1;
         valueLength = 0;
@@ -799,7 +802,7 @@ final class JsonReader implements Closeable {
         } else if (skipping) {
             result = "skipped!";
         } else if (builder == null) {
-            result = stringPool.get(buffer, pos, i);
+            result = pool.get(buffer, pos, i);
         } else {
             builder.append(buffer, pos, i);
             result = builder.toString();
@@ -823,7 +826,7 @@ final class JsonReader implements Closeable {
             case '\'':
                 checkLenient(); // fall-through
             case '"':
-                value = nextString((char) c);
+                value = nextString((char) c, stringPool);
                 return token = JsonToken.STRING;
 
             default:
@@ -840,7 +843,7 @@ final class JsonReader implements Closeable {
      * Reads a null, boolean, numeric or unquoted string literal value.
      */
     private JsonToken readLiteral() throws IOException {
-        value = nextLiteral(true);
+        value = nextLiteral(true, stringPool);
         if (valueLength == 0) {
             throw syntaxError("Expected literal value");
         }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of field paths to keep while decoding a json object.
+ * Paths are made of field names separated by dots: <code>author.name</code>
+ * keeps only the <code>name</code> of the <code>author</code> field.
+ * Selections apply to every object contained in a selected array.
+ * Unselected fields are skipped by the parser without being decoded.
+ * <p>
+ * Selectors are immutable and can be shared between threads.
+ */
+public final class JsonSelector {
+// ------------------------------ FIELDS ------------------------------
+
+    /**
+     * Selects every field
+     */
+    public static final JsonSelector ALL = new JsonSelector(null);
+
+    // selected fields and their own selection, null when every field is selected
+    final Map<String, JsonSelector> fields;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private JsonSelector(Map<String, JsonSelector> fields) {
+        this.fields = fields;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Creates a selector that keeps only the given <code>paths</code>.
+     *
+     * @param paths dot separated paths of the fields to keep
+     * @return a new selector
+     */
+    public static JsonSelector of(String... paths) {
+        return new JsonSelector(new HashMap<String, JsonSelector>()).with(paths);
+    }
+
+    /**
+     * Creates a selector from a comma separated query projection
+     * such as <code>title, author as writer</code>.
+     * Aliased fields are selected by their alias. A nested path such as
+     * <code>author.name</code> keeps the whole <code>author</code> field:
+     * this is not a nested projection, use {@link #of(String...)} to select nested fields.
+     * Returns {@link #ALL} when the projection contains expressions
+     * whose resulting fields cannot be predicted.
+     *
+     * @param projection the projection
+     * @return a selector for the fields returned by the projection
+     */
+    public static JsonSelector parse(String projection) {
+        if (projection == null) {
+            return ALL;
+        }
+        Map<String, JsonSelector> fields = new HashMap<String, JsonSelector>();
+        for (String item : projection.split(",")) {
+            String name = item.trim();
+            int alias = name.toLowerCase().lastIndexOf(" as ");
+            if (alias >= 0) {
+                name = name.substring(alias + 4).trim();
+            } else {
+                int dot = name.indexOf('.');
+                if (dot > 0) {
+                    name = name.substring(0, dot);
+                }
+            }
+            if (!isName(name)) {
+                return ALL;
+            }
+            fields.put(name, ALL);
+        }
+        return new JsonSelector(fields);
+    }
+
+    private static boolean isName(String name) {
+        if (name.length() == 0) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '@' && c != '$') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns a selector that keeps the fields selected by this one and the given <code>paths</code>.
+     *
+     * @param paths dot separated paths of the additional fields to keep
+     * @return a new selector
+     */
+    public JsonSelector with(String... paths) {
+        if (fields == null) {
+            return this;
+        }
+        Map<String, JsonSelector> merged = new HashMap<String, JsonSelector>(fields);
+        if (paths != null) {
+            for (String path : paths) {
+                if (path == null || path.length() == 0) throw new IllegalArgumentException("path cannot be empty");
+                int dot = path.indexOf('.');
+                String name = dot < 0 ? path : path.substring(0, dot);
+                JsonSelector sub = dot < 0 ? ALL : JsonSelector.of(path.substring(dot + 1));
+                JsonSelector current = merged.get(name);
+                merged.put(name, current == null ? sub : current.merge(sub));
+            }
+        }
+        return new JsonSelector(merged);
+    }
+
+    /**
+     * Returns a selector that keeps only the field <code>name</code>,
+     * applying this selector to its content.
+     *
+     * @param name the name of the field
+     * @return a new selector
+     */
+    public JsonSelector under(String name) {
+        if (name == null) throw new IllegalArgumentException("name cannot be null");
+        Map<String, JsonSelector> fields = new HashMap<String, JsonSelector>();
+        fields.put(name, this);
+        return new JsonSelector(fields);
+    }
+
+    /**
+     * Returns the selection to apply to the field <code>name</code>,
+     * {@link #ALL} to keep its whole value or null if the field is not selected
+     */
+    JsonSelector select(String name) {
+        return fields == null ? ALL : fields.get(name);
+    }
+
+    private JsonSelector merge(JsonSelector other) {
+        if (fields == null || other.fields == null) {
+            return ALL;
+        }
+        Map<String, JsonSelector> merged = new HashMap<String, JsonSelector>(fields);
+        for (Map.Entry<String, JsonSelector> e : other.fields.entrySet()) {
+            JsonSelector current = merged.get(e.getKey());
+            merged.put(e.getKey(), current == null ? e.getValue() : current.merge(e.getValue()));
+        }
+        return new JsonSelector(merged);
+    }
+
+    @Override
+    public String toString() {
+        return fields == null ? "*" : fields.toString();
+    }
+}
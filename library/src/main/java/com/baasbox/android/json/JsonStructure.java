@@ -3,6 +3,7 @@ package com.baasbox.android.json;
 import com.baasbox.android.impl.Base64;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 
 /**
@@ -38,6 +39,39 @@ public abstract class JsonStructure {
         return Base64.decode(data,Base64.URL_SAFE|Base64.NO_WRAP);
     }
 
+    /**
+     * Returns a copy of a json value: structures are copied on write,
+     * binary data is cloned and immutable values are returned as they are.
+     */
+    static Object copyOf(Object v) {
+        if (v instanceof JsonArray) {
+            return ((JsonArray) v).copy();
+        } else if (v instanceof JsonObject) {
+            return ((JsonObject) v).copy();
+        } else if (v instanceof byte[]) {
+            return ((byte[]) v).clone();
+        } else {
+            return v;
+        }
+    }
+
+    /**
+     * True if a value can be modified through a reference to it,
+     * and so must not be handed out while it is shared between copies.
+     */
+    static boolean isMutable(Object v) {
+        return v instanceof JsonStructure || v instanceof byte[] || v instanceof RawJson;
+    }
+
+    /**
+     * True if a value can be modified by whoever else references it:
+     * unlike undecoded values, structures and binary data
+     * handed out or received by a structure may be aliased.
+     */
+    static boolean isAliasable(Object v) {
+        return v instanceof JsonStructure || v instanceof byte[];
+    }
+
     /**
      * Decodes a string into a {@link JsonStructure}
      *
@@ -52,7 +86,7 @@ public abstract class JsonStructure {
         return decodeFully(r);
     }
 
-    static JsonStructure decodeFully(JsonReader jr) {
+    static JsonStructure decodeFully(JsonSource jr) {
         try {
             JsonToken t = jr.peek();
             switch (t) {
@@ -99,7 +133,10 @@ public abstract class JsonStructure {
     }
 
     /**
-     * Creates a deeep copy of this structure.
+     * Creates a copy of this structure that behaves as a deep copy:
+     * changes to either structure, at any depth, are not seen by the other.
+     * The content is shared until one of them is modified, then the modified
+     * level is copied, so copies of large structures that are only read are cheap.
      *
      * @return a new JsonStructure with the same content
      */
@@ -112,6 +149,23 @@ public abstract class JsonStructure {
      */
     public abstract String encode();
 
+    /**
+     * Encodes this structure as UTF-8 json directly into <code>out</code>,
+     * without building an intermediate string.
+     * The stream is flushed but not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public final void encode(OutputStream out) throws IOException {
+        Utf8Writer w = new Utf8Writer(out);
+        JsonWriter jw = new JsonWriter(w);
+        encode(jw);
+        jw.flush();
+    }
+
+    abstract void encode(JsonWriter w) throws IOException;
+
     /**
      * Checks if this structure is a {@link JsonArray}
      *
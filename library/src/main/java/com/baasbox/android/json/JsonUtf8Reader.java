@@ -0,0 +1,544 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Strict json tokenizer working directly on utf-8 encoded bytes,
+ * read either from an {@link InputStream} or from an array.
+ * Unlike {@link JsonReader} it does not decode the input into characters
+ * up front: strings are decoded only when they are consumed, and ascii
+ * property names are looked up in the name pool straight from the bytes.
+ */
+final class JsonUtf8Reader implements JsonSource {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final StringPool names;
+
+    private final InputStream in;
+    // when set, strings, objects and arrays may be returned as raw slices by nextRaw
+    private final boolean lazy;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+
+    private int[] stack = new int[32];
+    private int stackSize;
+
+    private JsonToken token;
+    private boolean bool;
+
+    private char[] chars = new char[64];
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    JsonUtf8Reader(InputStream in) {
+        if (in == null) throw new NullPointerException("in == null");
+        this.in = in;
+        this.buf = new byte[BUFFER_SIZE];
+        this.names = StringPool.shared();
+        this.lazy = false;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    JsonUtf8Reader(byte[] bytes, int offset, int length) {
+        this(bytes, offset, length, false);
+    }
+
+    JsonUtf8Reader(byte[] bytes, int offset, int length, boolean lazy) {
+        if (bytes == null) throw new NullPointerException("bytes == null");
+        this.in = null;
+        this.lazy = lazy;
+        this.names = StringPool.shared();
+        this.buf = bytes;
+        this.pos = offset;
+        this.limit = offset + length;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+// ------------------------ INTERFACE METHODS ------------------------
+
+// --------------------- Interface JsonSource ---------------------
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (token != null) {
+            return token;
+        }
+        int top = stackSize - 1;
+        int c;
+        switch (stack[top]) {
+            case EMPTY_ARRAY:
+                stack[top] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace(true) == ']') {
+                    pos++;
+                    return token = JsonToken.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace(true);
+                if (c == ']') {
+                    pos++;
+                    return token = JsonToken.END_ARRAY;
+                } else if (c == ',') {
+                    pos++;
+                } else {
+                    throw syntaxError("Unterminated array");
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace(true);
+                if (c == '}') {
+                    pos++;
+                    return token = JsonToken.END_OBJECT;
+                }
+                if (stack[top] == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Unterminated object");
+                    pos++;
+                    c = nextNonWhitespace(true);
+                }
+                if (c != '"') throw syntaxError("Expected name");
+                pos++;
+                stack[top] = DANGLING_NAME;
+                return token = JsonToken.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace(true) != ':') throw syntaxError("Expected ':'");
+                pos++;
+                stack[top] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                stack[top] = NONEMPTY_DOCUMENT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace(false) == -1) {
+                    return token = JsonToken.END_DOCUMENT;
+                }
+                throw syntaxError("Expected end of document");
+            default:
+                throw new IllegalStateException("closed");
+        }
+        return token = peekValue();
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        stackSize--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        stackSize--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken t = peek();
+        return t != JsonToken.END_OBJECT && t != JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        return readString(true);
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken t = peek();
+        if (t == JsonToken.STRING) {
+            token = null;
+            return readString(false);
+        } else if (t == JsonToken.NUMBER) {
+            token = null;
+            return readNumber();
+        }
+        throw new IllegalStateException("Expected a string but was " + t);
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        return bool;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case NAME:
+                case STRING:
+                    token = null;
+                    skipString();
+                    break;
+                case NUMBER:
+                    token = null;
+                    skipNumber();
+                    break;
+                case END_DOCUMENT:
+                    throw new IllegalStateException("Nothing to skip");
+                default:
+                    token = null;
+                    break;
+            }
+        } while (depth != 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        token = null;
+        stackSize = 1;
+        stack[0] = -1;
+        if (in != null) {
+            in.close();
+        }
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * In lazy mode skips the next string, array or object returning
+     * its undecoded slice, otherwise returns null and consumes nothing.
+     */
+    RawJson nextRaw() throws IOException {
+        if (!lazy) {
+            return null;
+        }
+        JsonToken t = peek();
+        if (t != JsonToken.STRING && t != JsonToken.BEGIN_OBJECT && t != JsonToken.BEGIN_ARRAY) {
+            return null;
+        }
+        // the opening quote or bracket has already been consumed by peek
+        int start = pos - 1;
+        skipValue();
+        return new RawJson(buf, start, pos);
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken t = peek();
+        if (t != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + t);
+        }
+        token = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private JsonToken peekValue() throws IOException {
+        int c = nextNonWhitespace(true);
+        switch (c) {
+            case '{':
+                pos++;
+                return JsonToken.BEGIN_OBJECT;
+            case '[':
+                pos++;
+                return JsonToken.BEGIN_ARRAY;
+            case '"':
+                pos++;
+                return JsonToken.STRING;
+            case 't':
+                literal("true");
+                bool = true;
+                return JsonToken.BOOLEAN;
+            case 'f':
+                literal("false");
+                bool = false;
+                return JsonToken.BOOLEAN;
+            case 'n':
+                literal("null");
+                return JsonToken.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return JsonToken.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void literal(String expected) throws IOException {
+        int len = expected.length();
+        if (!fill(len)) throw syntaxError("Unexpected end of input");
+        for (int i = 0; i < len; i++) {
+            if (buf[pos + i] != expected.charAt(i)) throw syntaxError("Expected " + expected);
+        }
+        pos += len;
+    }
+
+    /**
+     * Returns the next non whitespace byte without consuming it,
+     * or -1 at the end of the input if <code>required</code> is false.
+     */
+    private int nextNonWhitespace(boolean required) throws IOException {
+        for (; ; ) {
+            if (pos == limit && !fill(1)) {
+                if (required) throw new EOFException("End of input");
+                return -1;
+            }
+            int c = buf[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Ensures at least <code>minimum</code> bytes are buffered after pos.
+     */
+    private boolean fill(int minimum) throws IOException {
+        if (limit - pos >= minimum) {
+            return true;
+        }
+        if (in == null) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        int read;
+        while ((read = in.read(buf, limit, buf.length - limit)) != -1) {
+            limit += read;
+            if (limit >= minimum) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String readString(boolean name) throws IOException {
+        // fast path: the whole string is in the buffer, ascii and without escapes
+        for (int i = pos; i < limit; i++) {
+            int b = buf[i];
+            if (b == '"') {
+                int start = pos;
+                pos = i + 1;
+                return name ? names.getAscii(buf, start, i - start) : asciiString(start, i - start);
+            } else if (b == '\\' || b < 0) {
+                break;
+            }
+        }
+        return decodeString(name);
+    }
+
+    private String asciiString(int start, int length) {
+        char[] c = scratch(length);
+        for (int i = 0; i < length; i++) {
+            c[i] = (char) buf[start + i];
+        }
+        return new String(c, 0, length);
+    }
+
+    private String decodeString(boolean name) throws IOException {
+        int len = 0;
+        for (; ; ) {
+            if (pos == limit && !fill(1)) throw syntaxError("Unterminated string");
+            int b = buf[pos++];
+            char[] c = scratch(len + 2);
+            if (b == '"') {
+                return name ? names.get(c, 0, len) : new String(c, 0, len);
+            } else if (b == '\\') {
+                len = readEscape(c, len);
+            } else if (b >= 0) {
+                c[len++] = (char) b;
+            } else {
+                len = readMultiByte(b, c, len);
+            }
+        }
+    }
+
+    private int readMultiByte(int b, char[] c, int len) throws IOException {
+        int extra;
+        int cp;
+        if ((b & 0xE0) == 0xC0) {
+            extra = 1;
+            cp = b & 0x1F;
+        } else if ((b & 0xF0) == 0xE0) {
+            extra = 2;
+            cp = b & 0x0F;
+        } else if ((b & 0xF8) == 0xF0) {
+            extra = 3;
+            cp = b & 0x07;
+        } else {
+            throw syntaxError("Malformed utf-8");
+        }
+        if (!fill(extra)) throw syntaxError("Unterminated string");
+        for (int i = 0; i < extra; i++) {
+            int cont = buf[pos++];
+            if ((cont & 0xC0) != 0x80) throw syntaxError("Malformed utf-8");
+            cp = (cp << 6) | (cont & 0x3F);
+        }
+        if (cp >= 0x10000) {
+            cp -= 0x10000;
+            c[len++] = (char) (0xD800 + (cp >>> 10));
+            c[len++] = (char) (0xDC00 + (cp & 0x3FF));
+        } else {
+            c[len++] = (char) cp;
+        }
+        return len;
+    }
+
+    private int readEscape(char[] c, int len) throws IOException {
+        if (pos == limit && !fill(1)) throw syntaxError("Unterminated escape sequence");
+        int e = buf[pos++];
+        switch (e) {
+            case 'u':
+                if (!fill(4)) throw syntaxError("Unterminated escape sequence");
+                int cp = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = buf[pos++];
+                    cp <<= 4;
+                    if (h >= '0' && h <= '9') {
+                        cp += h - '0';
+                    } else if (h >= 'a' && h <= 'f') {
+                        cp += h - 'a' + 10;
+                    } else if (h >= 'A' && h <= 'F') {
+                        cp += h - 'A' + 10;
+                    } else {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                }
+                c[len++] = (char) cp;
+                break;
+            case 't':
+                c[len++] = '\t';
+                break;
+            case 'b':
+                c[len++] = '\b';
+                break;
+            case 'n':
+                c[len++] = '\n';
+                break;
+            case 'r':
+                c[len++] = '\r';
+                break;
+            case 'f':
+                c[len++] = '\f';
+                break;
+            default:
+                c[len++] = (char) e;
+                break;
+        }
+        return len;
+    }
+
+    private void skipString() throws IOException {
+        for (; ; ) {
+            if (pos == limit && !fill(1)) throw syntaxError("Unterminated string");
+            int b = buf[pos++];
+            if (b == '"') {
+                return;
+            } else if (b == '\\') {
+                if (pos == limit && !fill(1)) throw syntaxError("Unterminated escape sequence");
+                pos++;
+            }
+        }
+    }
+
+    private String readNumber() throws IOException {
+        int len = 0;
+        for (; ; ) {
+            if (pos == limit && !fill(1)) break;
+            int b = buf[pos];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                scratch(len + 1)[len++] = (char) b;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return new String(chars, 0, len);
+    }
+
+    private void skipNumber() throws IOException {
+        for (; ; ) {
+            if (pos == limit && !fill(1)) return;
+            int b = buf[pos];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private char[] scratch(int capacity) {
+        if (chars.length < capacity) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+        }
+        return chars;
+    }
+
+    private JsonException syntaxError(String message) {
+        return new JsonException(message + " at offset " + pos);
+    }
+}
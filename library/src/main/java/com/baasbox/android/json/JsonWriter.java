@@ -117,7 +117,7 @@ import java.util.List;
  * Instances of this class are not thread safe. Calls that would result in a
  * malformed JSON string will fail with an {@link IllegalStateException}.
  */
-final class JsonWriter implements Closeable {
+public final class JsonWriter implements Closeable {
 // ------------------------------ FIELDS ------------------------------
 
     /**
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.io.IOException;
+
+/**
+ * Undecoded string, object or array value of a lazily decoded {@link JsonObject}.
+ * It references the utf-8 bytes of the whole document, which are never modified,
+ * so the same slice can be shared between copies.
+ */
+final class RawJson {
+// ------------------------------ FIELDS ------------------------------
+
+    private final byte[] bytes;
+    private final int start;
+    private final int end;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    RawJson(byte[] bytes, int start, int end) {
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Decodes the value: nested objects are decoded lazily in turn.
+     */
+    Object materialize() {
+        JsonUtf8Reader reader = new JsonUtf8Reader(bytes, start, end - start, true);
+        try {
+            switch (reader.peek()) {
+                case STRING:
+                    return reader.nextString();
+                case BEGIN_OBJECT:
+                    return JsonObject.decode(reader);
+                case BEGIN_ARRAY:
+                    return JsonArray.decode(reader);
+                default:
+                    throw new JsonException("invalid json");
+            }
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    int length() {
+        return end - start;
+    }
+}
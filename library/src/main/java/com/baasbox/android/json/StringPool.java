@@ -15,52 +15,203 @@
  */
 package com.baasbox.android.json;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * A pool of string instances. Unlike the {@link String#intern() VM's
  * interned strings}, this pool provides no guarantee of reference equality.
- * It is intended only to save allocations. This class is not thread safe.
+ * It is intended only to save allocations.
+ * <p/>
+ * The pool is a fixed size table where a string replaces any other
+ * string in its bucket, so it never grows beyond its capacity.
+ * It is lock free and safe to use from multiple threads: the shared
+ * pool is used by all the json readers for the names of the fields, so the
+ * keys of documents decoded from different responses are the same instances.
+ * <p/>
+ * Hits and misses are counted on per thread stripes, so concurrent readers
+ * seldom update the same counter.
  */
-final class StringPool {
+public final class StringPool {
 // ------------------------------ FIELDS ------------------------------
 
-    private final String[] pool = new String[512];
+    /**
+     * Default capacity of the shared pool
+     */
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private static volatile StringPool sShared = new StringPool(DEFAULT_CAPACITY);
+
+    // a power of two
+    private static final int STRIPES = 8;
+    // hits and misses of a stripe are 64 bytes apart from the other stripes
+    private static final int STRIPE_WIDTH = 8;
+
+    private final AtomicReferenceArray<String> pool;
+    private final int mask;
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * STRIPE_WIDTH);
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    StringPool() {
+        this(512);
+    }
+
+    StringPool(int capacity) {
+        int size = tableSize(capacity);
+        pool = new AtomicReferenceArray<String>(size);
+        mask = size - 1;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Returns the process wide pool used for json field names
+     */
+    public static StringPool shared() {
+        return sShared;
+    }
+
+    /**
+     * Replaces the shared pool with an empty one of the given capacity,
+     * rounded up to a power of two. A capacity of 0 disables pooling.
+     * Called once by the client when it is built.
+     *
+     * @param capacity the maximum number of pooled strings
+     */
+    public static void setSharedCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity cannot be negative");
+        if (sShared.capacity() != tableSize(capacity)) {
+            sShared = new StringPool(capacity);
+        }
+    }
+
+    private static int tableSize(int capacity) {
+        return capacity <= 0 ? 0 : Integer.highestOneBit(Math.min(capacity, 1 << 30) * 2 - 1);
+    }
+
+    private static int bucket(int hashCode) {
+        // Doug Lea's supplemental secondaryHash function (from HashMap)
+        hashCode ^= (hashCode >>> 20) ^ (hashCode >>> 12);
+        hashCode ^= (hashCode >>> 7) ^ (hashCode >>> 4);
+        return hashCode;
+    }
+
+    private static int stripe() {
+        return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * STRIPE_WIDTH;
+    }
+
+    private static boolean contentEquals(String s, byte[] bytes, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contentEquals(String s, char[] chars, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+// --------------------- GETTER / SETTER METHODS ---------------------
+
+    /**
+     * Returns the number of lookups that returned a pooled instance
+     */
+    public long hitCount() {
+        return sum(0);
+    }
+
+    /**
+     * Returns the number of lookups that allocated a new string
+     */
+    public long missCount() {
+        return sum(1);
+    }
+
+    /**
+     * Returns the maximum number of strings held by this pool
+     */
+    public int capacity() {
+        return pool.length();
+    }
 
 // -------------------------- OTHER METHODS --------------------------
 
+    private long sum(int counter) {
+        long total = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            total += counts.get(i * STRIPE_WIDTH + counter);
+        }
+        return total;
+    }
+
     /**
      * Returns a string equal to {@code new String(array, start, length)}.
      */
-    public String get(char[] array, int start, int length) {
+    String get(char[] array, int start, int length) {
+        if (mask < 0) {
+            return new String(array, start, length);
+        }
         // Compute an arbitrary hash of the content
         int hashCode = 0;
         for (int i = start; i < start + length; i++) {
             hashCode = (hashCode * 31) + array[i];
         }
+        int index = bucket(hashCode) & mask;
 
-        // Pick a bucket using Doug Lea's supplemental secondaryHash function (from HashMap)
-        hashCode ^= (hashCode >>> 20) ^ (hashCode >>> 12);
-        hashCode ^= (hashCode >>> 7) ^ (hashCode >>> 4);
-        int index = hashCode & (pool.length - 1);
-
-        String pooled = pool[index];
+        String pooled = pool.get(index);
         if (pooled != null && contentEquals(pooled, array, start, length)) {
+            counts.incrementAndGet(stripe());
             return pooled;
         }
 
         String result = new String(array, start, length);
-        pool[index] = result;
+        pool.lazySet(index, result);
+        counts.incrementAndGet(stripe() + 1);
         return result;
     }
 
-    private static boolean contentEquals(String s, char[] chars, int start, int length) {
-        if (s.length() != length) {
-            return false;
+    /**
+     * Returns a string equal to the ascii encoded {@code bytes} in
+     * {@code [start, start + length)}. Callers must ensure every byte is ascii.
+     */
+    String getAscii(byte[] bytes, int start, int length) {
+        int index = 0;
+        if (mask >= 0) {
+            int hashCode = 0;
+            for (int i = start; i < start + length; i++) {
+                hashCode = (hashCode * 31) + bytes[i];
+            }
+            index = bucket(hashCode) & mask;
+
+            String pooled = pool.get(index);
+            if (pooled != null && contentEquals(pooled, bytes, start, length)) {
+                counts.incrementAndGet(stripe());
+                return pooled;
+            }
         }
+
+        char[] chars = new char[length];
         for (int i = 0; i < length; i++) {
-            if (chars[start + i] != s.charAt(i)) {
-                return false;
-            }
+            chars[i] = (char) bytes[start + i];
         }
-        return true;
+        String result = new String(chars);
+        if (mask >= 0) {
+            pool.lazySet(index, result);
+            counts.incrementAndGet(stripe() + 1);
+        }
+        return result;
     }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Writer that encodes characters as UTF-8 straight into an {@link OutputStream}
+ * through a small byte buffer, without intermediate strings or char arrays.
+ * Unpaired surrogates are replaced with '?' as {@link String#getBytes(String)} does.
+ */
+final class Utf8Writer extends Writer {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    // pending high surrogate, 0 if none
+    private char high;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    Utf8Writer(OutputStream out) {
+        if (out == null) throw new NullPointerException("out == null");
+        this.out = out;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    @Override
+    public void write(int c) throws IOException {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            encode(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            encode(str.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(char c) throws IOException {
+        encode(c);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq == null ? 4 : csq.length());
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) csq = "null";
+        for (int i = start; i < end; i++) {
+            encode(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (high != 0) {
+            high = 0;
+            put((byte) '?');
+        }
+        drain();
+        out.close();
+    }
+
+    private void encode(char c) throws IOException {
+        if (pos + 4 > BUFFER_SIZE) {
+            drain();
+        }
+        if (high != 0) {
+            char h = high;
+            high = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(h, c);
+                buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+                return;
+            }
+            buf[pos++] = '?';
+            if (pos + 3 > BUFFER_SIZE) {
+                drain();
+            }
+        }
+        if (c < 0x80) {
+            buf[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[pos++] = (byte) (0xc0 | (c >> 6));
+            buf[pos++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            high = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[pos++] = '?';
+        } else {
+            buf[pos++] = (byte) (0xe0 | (c >> 12));
+            buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buf[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    private void put(byte b) throws IOException {
+        if (pos == BUFFER_SIZE) {
+            drain();
+        }
+        buf[pos++] = b;
+    }
+
+    private void drain() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class HttpResponse {
     private Body entity;
     private final HttpVersion version;
     private final Map<String,String> headers;
+    private Boolean connectionReused;
 
     public HttpResponse(HttpVersion version,int status, String message) {
         this.headers = new LinkedHashMap<>();
@@ -62,6 +63,27 @@ public class HttpResponse {
         return status;
     }
 
+    public HttpVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * Records whether the response was received on a connection
+     * that had already served other requests.
+     * Clients that cannot tell do not call it.
+     * @param reused
+     */
+    public void setConnectionReused(boolean reused) {
+        this.connectionReused = reused;
+    }
+
+    /**
+     * @return true if the connection was reused, null if the client did not tell
+     */
+    public Boolean isConnectionReused() {
+        return connectionReused;
+    }
+
     public enum HttpVersion{
         /**
          * An obsolete plaintext framing that does not use persistent sockets by
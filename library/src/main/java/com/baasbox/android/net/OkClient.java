@@ -23,6 +23,9 @@ import com.baasbox.android.BaasBox;
 import com.baasbox.android.BaasException;
 import com.baasbox.android.BaasIOException;
 import com.baasbox.android.BaasRuntimeException;
+import com.squareup.okhttp.Connection;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Interceptor;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.Protocol;
@@ -33,6 +36,12 @@ import com.squareup.okhttp.ResponseBody;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
 import okio.BufferedSink;
@@ -48,6 +57,7 @@ public class OkClient implements RestClient{
 
     private OkHttpClient mOkHttp;
     private String charset;
+    private final ReuseTracker reuse = new ReuseTracker();
     public OkClient() { this(new OkHttpClient());}
 
 //    @Deprecated
@@ -65,6 +75,47 @@ public class OkClient implements RestClient{
         mOkHttp.setConnectTimeout(config.httpConnectionTimeout, TimeUnit.MILLISECONDS);
         mOkHttp.setReadTimeout(config.httpSocketTimeout,TimeUnit.MILLISECONDS);
         mOkHttp.setFollowSslRedirects(true);
+        if (config.maxIdleConnections >= 0) {
+            mOkHttp.setConnectionPool(new ConnectionPool(config.maxIdleConnections, config.keepAliveDuration));
+        }
+        if (config.httpProtocols != null) {
+            List<Protocol> protocols = new ArrayList<Protocol>(config.httpProtocols.size());
+            for (HttpResponse.HttpVersion version : config.httpProtocols) {
+                try {
+                    protocols.add(Protocol.get(version.toString()));
+                } catch (IOException e) {
+                    throw new BaasRuntimeException(e);
+                }
+            }
+            mOkHttp.setProtocols(protocols);
+        }
+        if (!mOkHttp.networkInterceptors().contains(reuse)) {
+            mOkHttp.networkInterceptors().add(reuse);
+        }
+    }
+
+    /**
+     * Tells if the connection of each response had served previous requests,
+     * network interceptors run on the thread executing the call.
+     */
+    private static class ReuseTracker implements Interceptor {
+        private final Map<Socket, Boolean> seen = Collections.synchronizedMap(new WeakHashMap<Socket, Boolean>());
+        private final ThreadLocal<Boolean> reused = new ThreadLocal<Boolean>();
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Connection connection = chain.connection();
+            if (connection != null) {
+                reused.set(seen.put(connection.getSocket(), Boolean.TRUE) != null);
+            }
+            return chain.proceed(chain.request());
+        }
+
+        Boolean take() {
+            Boolean r = reused.get();
+            reused.remove();
+            return r;
+        }
     }
 
     private static class InputRequestBody extends RequestBody{
@@ -135,10 +186,16 @@ public class OkClient implements RestClient{
         okRequestBuilder.url(request.url);
         Request okRequest=okRequestBuilder.build();
         try {
+            // drops the value left by a call that failed on this thread
+            reuse.take();
             Response resp = mOkHttp.newCall(okRequest).execute();
             Protocol protocol = resp.protocol();
             HttpResponse.HttpVersion version = HttpResponse.HttpVersion.get(protocol.toString());
             HttpResponse bresp = new HttpResponse(version,resp.code(),resp.message());
+            Boolean reused = reuse.take();
+            if (reused != null) {
+                bresp.setConnectionReused(reused);
+            }
             OkBody body = new OkBody(resp.body());
             bresp.setEntity(body);
             for (String name:resp.headers().names()){
@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2014. BaasBox
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.baasbox.android.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a <code>JsonBinder</code> for every class annotated with <code>@JsonModel</code>.
+ * The binder of <code>p.Outer.Model</code> is <code>p.Outer$Model$$JsonBinder</code>,
+ * it reads and writes the bound fields directly, without reflection.
+ */
+public final class JsonModelProcessor extends AbstractProcessor {
+// ------------------------------ FIELDS ------------------------------
+
+    private static final String JSON = "com.baasbox.android.json.";
+    private static final String JSON_MODEL = JSON + "JsonModel";
+    private static final String JSON_FIELD = JSON + "JsonField";
+    private static final String SUFFIX = "$$JsonBinder";
+
+    private static final Map<String, String> BINDERS = new LinkedHashMap<String, String>();
+
+    static {
+        BINDERS.put("java.lang.String", "JsonBinder.STRING");
+        BINDERS.put("java.lang.Long", "JsonBinder.LONG");
+        BINDERS.put("java.lang.Integer", "JsonBinder.INTEGER");
+        BINDERS.put("java.lang.Double", "JsonBinder.DOUBLE");
+        BINDERS.put("java.lang.Boolean", "JsonBinder.BOOLEAN");
+        BINDERS.put(JSON + "JsonObject", "JsonBinder.OBJECT");
+        BINDERS.put(JSON + "JsonArray", "JsonBinder.ARRAY");
+    }
+
+// ------------------------ INTERFACE METHODS ------------------------
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(JSON_MODEL);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+        for (TypeElement annotation : annotations) {
+            for (Element e : env.getElementsAnnotatedWith(annotation)) {
+                if (e.getKind() != ElementKind.CLASS) {
+                    error(e, "@JsonModel can only be applied to classes");
+                    continue;
+                }
+                TypeElement type = (TypeElement) e;
+                try {
+                    generate(type);
+                } catch (InvalidModel m) {
+                    error(m.element, m.getMessage());
+                } catch (IOException io) {
+                    error(type, "unable to write the binder of " + type + ": " + io.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    private void generate(TypeElement type) throws IOException {
+        checkModel(type);
+        String pkg = packageOf(type).getQualifiedName().toString();
+        String model = type.getQualifiedName().toString();
+        String binder = flatName(type) + SUFFIX;
+
+        StringBuilder read = new StringBuilder();
+        StringBuilder write = new StringBuilder();
+        Set<String> names = new HashSet<String>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+                throw new InvalidModel(field, "bound fields must not be private or final");
+            }
+            String name = jsonName(field);
+            if (!names.add(name)) {
+                throw new InvalidModel(field, "duplicate json name " + name);
+            }
+            bindField(field, name, read, write);
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                pkg.length() == 0 ? binder : pkg + "." + binder, type);
+        Writer w = file.openWriter();
+        try {
+            if (pkg.length() > 0) {
+                w.write("package " + pkg + ";\n\n");
+            }
+            w.write("import com.baasbox.android.json.JsonBinder;\n"
+                  + "import com.baasbox.android.json.JsonSource;\n"
+                  + "import com.baasbox.android.json.JsonToken;\n"
+                  + "import com.baasbox.android.json.JsonWriter;\n"
+                  + "import java.io.IOException;\n\n"
+                  + "/**\n"
+                  + " * Generated by the baasbox annotation processor, do not edit.\n"
+                  + " */\n"
+                  + "public final class " + binder + " extends JsonBinder<" + model + "> {\n\n"
+                  + "    @Override\n"
+                  + "    public " + model + " read(JsonSource in) throws IOException {\n"
+                  + "        if (in.peek() == JsonToken.NULL) {\n"
+                  + "            in.nextNull();\n"
+                  + "            return null;\n"
+                  + "        }\n"
+                  + "        " + model + " value = new " + model + "();\n"
+                  + "        in.beginObject();\n"
+                  + "        while (in.hasNext()) {\n"
+                  + "            switch (in.nextName()) {\n"
+                  + read
+                  + "                default:\n"
+                  + "                    in.skipValue();\n"
+                  + "            }\n"
+                  + "        }\n"
+                  + "        in.endObject();\n"
+                  + "        return value;\n"
+                  + "    }\n\n"
+                  + "    @Override\n"
+                  + "    public void write(JsonWriter out, " + model + " value) throws IOException {\n"
+                  + "        if (value == null) {\n"
+                  + "            out.nullValue();\n"
+                  + "            return;\n"
+                  + "        }\n"
+                  + "        out.beginObject();\n"
+                  + write
+                  + "        out.endObject();\n"
+                  + "    }\n"
+                  + "}\n");
+        } finally {
+            w.close();
+        }
+    }
+
+    private void bindField(VariableElement field, String name, StringBuilder read, StringBuilder write) {
+        String f = "value." + field.getSimpleName();
+        String key = literal(name);
+        TypeMirror t = field.asType();
+        read.append("                case ").append(key).append(": {\n");
+        write.append("        out.name(").append(key).append(");\n");
+        if (t.getKind().isPrimitive()) {
+            String binder;
+            String unbox;
+            switch (t.getKind()) {
+                case BOOLEAN:
+                    binder = "JsonBinder.BOOLEAN";
+                    unbox = "v";
+                    write.append("        out.value(").append(f).append(");\n");
+                    break;
+                case INT:
+                    binder = "JsonBinder.INTEGER";
+                    unbox = "v";
+                    write.append("        out.value((long) ").append(f).append(");\n");
+                    break;
+                case LONG:
+                    binder = "JsonBinder.LONG";
+                    unbox = "v";
+                    write.append("        out.value(").append(f).append(");\n");
+                    break;
+                case DOUBLE:
+                    binder = "JsonBinder.DOUBLE";
+                    unbox = "v";
+                    write.append("        out.value(").append(f).append(");\n");
+                    break;
+                case FLOAT:
+                    binder = "JsonBinder.DOUBLE";
+                    unbox = "(float) v.doubleValue()";
+                    write.append("        out.value((double) ").append(f).append(");\n");
+                    break;
+                default:
+                    throw new InvalidModel(field, "unsupported field type " + t);
+            }
+            read.append("                    ").append(boxed(binder)).append(" v = ").append(binder).append(".read(in);\n")
+                .append("                    if (v != null) {\n")
+                .append("                        ").append(f).append(" = ").append(unbox).append(";\n")
+                .append("                    }\n");
+        } else {
+            String binder = binderOf(field, t);
+            read.append("                    ").append(f).append(" = ").append(binder).append(".read(in);\n");
+            write.append("        ").append(binder).append(".write(out, ").append(f).append(");\n");
+        }
+        read.append("                    break;\n")
+            .append("                }\n");
+    }
+
+    private String binderOf(VariableElement field, TypeMirror t) {
+        if (t.getKind() != TypeKind.DECLARED) {
+            throw new InvalidModel(field, "unsupported field type " + t);
+        }
+        DeclaredType declared = (DeclaredType) t;
+        TypeElement element = (TypeElement) declared.asElement();
+        String name = element.getQualifiedName().toString();
+        String binder = BINDERS.get(name);
+        if (binder != null) {
+            return binder;
+        }
+        if (name.equals("java.util.List")) {
+            List<? extends TypeMirror> args = declared.getTypeArguments();
+            if (args.size() != 1) {
+                throw new InvalidModel(field, "lists must declare the type of their elements");
+            }
+            return "JsonBinder.listOf(" + binderOf(field, args.get(0)) + ")";
+        }
+        if (annotation(element, JSON_MODEL) != null) {
+            return "JsonBinder.of(" + name + ".class)";
+        }
+        throw new InvalidModel(field, "unsupported field type " + t
+                + ", fields must be json values, lists or @JsonModel classes");
+    }
+
+    private static String boxed(String binder) {
+        if (binder.endsWith("BOOLEAN")) return "Boolean";
+        if (binder.endsWith("INTEGER")) return "Integer";
+        if (binder.endsWith("LONG")) return "Long";
+        return "Double";
+    }
+
+    private static void checkModel(TypeElement type) {
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.ABSTRACT)) {
+            throw new InvalidModel(type, "@JsonModel classes must not be private or abstract");
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            throw new InvalidModel(type, "nested @JsonModel classes must be static");
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            throw new InvalidModel(type, "@JsonModel classes must be top level or nested classes");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new InvalidModel(type, "@JsonModel classes cannot be generic");
+        }
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) {
+                return;
+            }
+        }
+        throw new InvalidModel(type, "@JsonModel classes need a non private no-arg constructor");
+    }
+
+    private static String jsonName(VariableElement field) {
+        AnnotationMirror a = annotation(field, JSON_FIELD);
+        if (a != null) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : a.getElementValues().entrySet()) {
+                if (e.getKey().getSimpleName().contentEquals("value")) {
+                    return (String) e.getValue().getValue();
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror a : element.getAnnotationMirrors()) {
+            TypeElement t = (TypeElement) a.getAnnotationType().asElement();
+            if (t.getQualifiedName().contentEquals(name)) {
+                return a;
+            }
+        }
+        return null;
+    }
+
+    private static PackageElement packageOf(Element e) {
+        while (e.getKind() != ElementKind.PACKAGE) {
+            e = e.getEnclosingElement();
+        }
+        return (PackageElement) e;
+    }
+
+    /**
+     * Binary simple name of <code>type</code>: Outer$Inner for nested classes
+     */
+    private static String flatName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing.getKind() != ElementKind.PACKAGE) {
+            name = enclosing.getSimpleName() + "$" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name;
+    }
+
+    private static String literal(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private void error(Element e, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, e);
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    private static final class InvalidModel extends RuntimeException {
+        private static final long serialVersionUID = 3551802284170153217L;
+
+        // only reported while processing, elements are not serializable
+        final transient Element element;
+
+        InvalidModel(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}